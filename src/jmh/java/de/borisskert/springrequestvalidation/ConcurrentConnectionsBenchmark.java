@@ -0,0 +1,163 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the Spring MVC on Tomcat ({@code servlet}) and the WebFlux on Netty ({@code reactive}) deployment: each
+ * operation sends {@code connections} concurrent requests for a user, over as many connections which are kept open
+ * between the operations.
+ * <p>
+ * The application runs in a process of its own, so both the client and the server have file descriptors for all
+ * connections. After each iteration, the memory and threads of the server are printed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConcurrentConnectionsBenchmark {
+
+    private static final String ID = "6e9f59fa-cc85-4096-9165-7a3661fd6bc0";
+    private static final String USER = "{\"username\":\"smithj\",\"email\":\"john.smith@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+
+    @Param({"servlet", "reactive"})
+    private String webApplicationType;
+
+    @Param({"10000"})
+    private int connections;
+
+    private Process server;
+    private String baseUri;
+    private HttpClient client;
+    private HttpRequest getUser;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        Path log = Files.createTempFile("users-" + webApplicationType, ".log");
+        server = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                Application.class.getName(),
+                "--server.port=" + port,
+                "--spring.main.web-application-type=" + webApplicationType
+        ).redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        baseUri = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMinutes(1))
+                .build();
+
+        awaitStarted(log.toFile());
+
+        client.send(HttpRequest.newBuilder(URI.create(baseUri + "/api/users/" + ID))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(USER))
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        getUser = HttpRequest.newBuilder(URI.create(baseUri + "/api/users/" + ID)).build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printServerResources() throws IOException, InterruptedException {
+        String metrics = client.send(
+                HttpRequest.newBuilder(URI.create(baseUri + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString()
+        ).body();
+
+        System.out.printf("%n%s: %d MB resident, %d MB heap used, %d threads%n",
+                webApplicationType,
+                residentKilobytes() / 1024,
+                (long) sum(metrics, "jvm_memory_used_bytes{area=\"heap\"") / (1024 * 1024),
+                (long) sum(metrics, "jvm_threads_live_threads"));
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        server.destroy();
+        server.waitFor();
+    }
+
+    @Benchmark
+    public int getUserConcurrently() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(connections);
+
+        for (int request = 0; request < connections; request++) {
+            responses.add(client.sendAsync(getUser, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+
+        if (ok != connections) {
+            throw new IllegalStateException((connections - ok) + " of " + connections + " requests failed");
+        }
+
+        return ok;
+    }
+
+    private void awaitStarted(File log) throws IOException, InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUri + "/actuator/health")).build();
+
+        for (int attempt = 0; attempt < 600; attempt++) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Application exited, see " + log);
+            }
+
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not yet listening
+            }
+
+            Thread.sleep(100);
+        }
+
+        throw new IllegalStateException("Application did not start, see " + log);
+    }
+
+    private long residentKilobytes() throws IOException {
+        return Files.readAllLines(Path.of("/proc", String.valueOf(server.pid()), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static double sum(String metrics, String series) {
+        return metrics.lines()
+                .filter(line -> line.startsWith(series))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+}
@@ -0,0 +1,78 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the running application on polling a user, answered in full or, with the
+ * {@link UserETag} of the user in {@code If-None-Match}, by 304 Not Modified
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionalGetBenchmark {
+
+    private static final String ID = "6e9f59fa-cc85-4096-9165-7a3661fd6bc0";
+    private static final String USER = "{\"username\":\"smithj\",\"email\":\"john.smith@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+
+    private HttpRequest getUser;
+    private HttpRequest getUserIfNoneMatch;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0")
+                .run();
+
+        String user = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users/" + ID;
+        client = HttpClient.newHttpClient();
+
+        client.send(HttpRequest.newBuilder(URI.create(user))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(USER))
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        getUser = HttpRequest.newBuilder(URI.create(user)).build();
+        String eTag = send(getUser, 200).headers().firstValue("ETag").orElseThrow();
+        getUserIfNoneMatch = HttpRequest.newBuilder(URI.create(user)).header("If-None-Match", eTag).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> getUser() throws IOException, InterruptedException {
+        return send(getUser, 200);
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> getUserIfNoneMatch() throws IOException, InterruptedException {
+        return send(getUserIfNoneMatch, 304);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request + " answered " + response.statusCode());
+        }
+
+        return response;
+    }
+}
@@ -0,0 +1,113 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the running application on requests which are all rejected, as during retry storms:
+ * conflicting ids and usernames, invalid users and invalid ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConflictBenchmark {
+
+    private static final String ID = "6e9f59fa-cc85-4096-9165-7a3661fd6bc0";
+    private static final String OTHER_ID = "2884a717-5a17-49fa-84cc-d4321207c7f9";
+
+    private static final String USER = "{\"username\":\"smithj\",\"email\":\"john.smith@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+    private static final String OTHER_USER = "{\"username\":\"doej\",\"email\":\"john.doe@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+    private static final String INVALID_USER = "{\"username\":\"\",\"email\":\"not_a_email\",\"dateOfBirth\":\"1990-10-03\"}";
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+
+    private HttpRequest insertDuplicateId;
+    private HttpRequest insertDuplicateUsername;
+    private HttpRequest createDuplicateUsername;
+    private HttpRequest createInvalidUser;
+    private HttpRequest getByInvalidId;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0")
+                .run();
+
+        String users = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users";
+        client = HttpClient.newHttpClient();
+
+        insertDuplicateId = put(users + "/" + ID, OTHER_USER);
+        insertDuplicateUsername = put(users + "/" + OTHER_ID, USER);
+        createDuplicateUsername = post(users, USER);
+        createInvalidUser = post(users, INVALID_USER);
+        getByInvalidId = HttpRequest.newBuilder(URI.create(users + "/444")).build();
+
+        send(put(users + "/" + ID, USER), 200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String insertDuplicateId() throws IOException, InterruptedException {
+        return send(insertDuplicateId, 409);
+    }
+
+    @Benchmark
+    public String insertDuplicateUsername() throws IOException, InterruptedException {
+        return send(insertDuplicateUsername, 409);
+    }
+
+    @Benchmark
+    public String createDuplicateUsername() throws IOException, InterruptedException {
+        return send(createDuplicateUsername, 409);
+    }
+
+    @Benchmark
+    public String createInvalidUser() throws IOException, InterruptedException {
+        return send(createInvalidUser, 400);
+    }
+
+    @Benchmark
+    public String getByInvalidId() throws IOException, InterruptedException {
+        return send(getByInvalidId, 400);
+    }
+
+    private String send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request + " answered " + response.statusCode() + ": " + response.body());
+        }
+
+        return response.body();
+    }
+
+    private static HttpRequest put(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest post(String uri, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link EmailValidator} with the regular expression based validator of Hibernate Validator on a valid
+ * address and on adversarial inputs of growing length, which make the regular expressions backtrack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailValidatorBenchmark {
+
+    private static final String VALID_EMAIL = "my@fakemail.com";
+
+    private final org.hibernate.validator.internal.constraintvalidators.bv.EmailValidator hibernate =
+            new org.hibernate.validator.internal.constraintvalidators.bv.EmailValidator();
+
+    @Param({"16", "64", "256", "1024"})
+    private int length;
+
+    /**
+     * A single domain label followed by a character no label may contain
+     */
+    private String longLabel;
+
+    /**
+     * Hyphenated domain labels followed by a character no label may contain
+     */
+    private String hyphenatedLabel;
+
+    @Setup
+    public void setup() {
+        longLabel = "a@" + "a".repeat(length) + "[";
+        hyphenatedLabel = "a@" + "a-".repeat(length / 2) + "[";
+    }
+
+    @Benchmark
+    public boolean regexValid() {
+        return hibernate.isValid(VALID_EMAIL, null);
+    }
+
+    @Benchmark
+    public boolean regexLongLabel() {
+        return hibernate.isValid(longLabel, null);
+    }
+
+    @Benchmark
+    public boolean regexHyphenatedLabel() {
+        return hibernate.isValid(hyphenatedLabel, null);
+    }
+
+    @Benchmark
+    public boolean linearValid() {
+        return EmailValidator.isEmail(VALID_EMAIL);
+    }
+
+    @Benchmark
+    public boolean linearLongLabel() {
+        return EmailValidator.isEmail(longLabel);
+    }
+
+    @Benchmark
+    public boolean linearHyphenatedLabel() {
+        return EmailValidator.isEmail(hyphenatedLabel);
+    }
+}
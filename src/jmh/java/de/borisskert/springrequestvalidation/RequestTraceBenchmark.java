@@ -0,0 +1,71 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tracing one request through all phases into the {@link RequestTraces}, by one and by four threads, and
+ * listing the slowest requests. Run with {@code -prof gc} to see that tracing allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestTraceBenchmark {
+
+    private RequestTraces traces;
+    private int endpoint;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        traces = new RequestTraces(1024);
+        endpoint = traces.endpointIndex(UsersEndpoint.class.getMethod("create", User.class));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void traceRequest() {
+        trace();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void traceRequest4Threads() {
+        trace();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void enterAndExitOutsideOfRequest() {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+        RequestTrace.exit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public List<TracedRequest> listSlowest() {
+        return traces.slowest(20);
+    }
+
+    private void trace() {
+        RequestTrace trace = RequestTrace.current();
+        trace.begin(endpoint);
+
+        RequestTrace.enter(RequestPhase.BINDING);
+        RequestTrace.exit();
+
+        RequestTrace.enter(RequestPhase.SERVICE);
+        RequestTrace.enter(RequestPhase.BEAN_VALIDATION);
+        RequestTrace.exit();
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+        RequestTrace.exit();
+        RequestTrace.exit();
+
+        trace.end();
+        traces.record(trace, 201);
+    }
+}
@@ -0,0 +1,51 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures getting the JSON of a user from the {@link UserJsonCache}, serialized on every read ({@code size} 0) or
+ * cached. Run with {@code -prof gc} to compare the allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonCacheBenchmark {
+
+    @Param({"0", "65536"})
+    private int size;
+
+    private UserJsonCache cache;
+    private UserId id;
+    private User user;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        cache = new UserJsonCache(mapper, size);
+        id = UserId.of(UUID.randomUUID());
+        user = new User("smithj", "john.smith@fakemail.com", LocalDate.of(1990, 10, 3));
+    }
+
+    @Benchmark
+    public UserJsonCache.Json byId() {
+        return cache.byId(id, user);
+    }
+
+    @Benchmark
+    public UserJsonCache.Json byUsername() {
+        return cache.byUsername(user.getUsername(), user);
+    }
+}
@@ -0,0 +1,101 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the time to read {@code users} users from the running application, by a single lookup request and by as
+ * many requests for a user by id
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+
+    private HttpRequest lookup;
+    private List<HttpRequest> getById;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0")
+                .run();
+
+        String uri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users";
+        client = HttpClient.newHttpClient();
+
+        List<String> ids = new ArrayList<>(users);
+        getById = new ArrayList<>(users);
+
+        for (int user = 0; user < users; user++) {
+            String id = UUID.randomUUID().toString();
+            String json = "{\"username\":\"user_" + user + "\",\"email\":\"user_" + user + "@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+
+            client.send(HttpRequest.newBuilder(URI.create(uri + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(json))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+
+            ids.add(id);
+            getById.add(HttpRequest.newBuilder(URI.create(uri + "/" + id)).build());
+        }
+
+        lookup = HttpRequest.newBuilder(URI.create(uri + "/lookup"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ids.stream()
+                        .collect(Collectors.joining("\",\"", "[\"", "\"]"))))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] lookup() throws IOException, InterruptedException {
+        return send(lookup);
+    }
+
+    @Benchmark
+    public int getEachById() throws IOException, InterruptedException {
+        int length = 0;
+
+        for (HttpRequest request : getById) {
+            length += send(request).length;
+        }
+
+        return length;
+    }
+
+    private byte[] send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request + " answered " + response.statusCode());
+        }
+
+        return response.body();
+    }
+}
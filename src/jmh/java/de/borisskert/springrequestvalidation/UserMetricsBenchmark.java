@@ -0,0 +1,75 @@
+package de.borisskert.springrequestvalidation;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of recording into the {@link UserMetrics} per request, by one and by four threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMetricsBenchmark {
+
+    private PrometheusMeterRegistry registry;
+    private UserMetrics metrics;
+    private Timer timer;
+    private Set<ConstraintViolation<User>> violations;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metrics = new UserMetrics(registry);
+        timer = metrics.requestTimer(UsersEndpoint.class.getMethod("getUserById", String.class, WebRequest.class));
+        violations = Validation.buildDefaultValidatorFactory()
+                .getValidator()
+                .validate(new User("my_username", "not_a_email", LocalDate.of(1990, 10, 3)));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void recordLatency() {
+        timer.record(latency(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordLatency4Threads() {
+        timer.record(latency(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void countConflict() {
+        metrics.conflicted(SaveResult.USERNAME_EXISTS);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void countViolation() {
+        metrics.violated(violations);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String scrape() {
+        return registry.scrape();
+    }
+
+    private static long latency() {
+        return ThreadLocalRandom.current().nextLong(100_000, 10_000_000);
+    }
+}
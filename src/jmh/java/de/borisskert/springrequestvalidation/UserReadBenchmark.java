@@ -0,0 +1,80 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the running application on reading a user by id and by username, with the
+ * {@link UserJsonCache} disabled ({@code jsonCacheSize} 0) and enabled
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserReadBenchmark {
+
+    private static final String ID = "6e9f59fa-cc85-4096-9165-7a3661fd6bc0";
+    private static final String USER = "{\"username\":\"smithj\",\"email\":\"john.smith@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}";
+
+    @Param({"0", "65536"})
+    private int jsonCacheSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+
+    private HttpRequest getById;
+    private HttpRequest findByUsername;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0", "users.json-cache.size=" + jsonCacheSize)
+                .run();
+
+        String users = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/users";
+        client = HttpClient.newHttpClient();
+
+        client.send(HttpRequest.newBuilder(URI.create(users + "/" + ID))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(USER))
+                .build(), HttpResponse.BodyHandlers.discarding());
+
+        getById = HttpRequest.newBuilder(URI.create(users + "/" + ID)).build();
+        findByUsername = HttpRequest.newBuilder(URI.create(users + "?username=smithj")).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getById() throws IOException, InterruptedException {
+        return send(getById);
+    }
+
+    @Benchmark
+    public byte[] findByUsername() throws IOException, InterruptedException {
+        return send(findByUsername);
+    }
+
+    private byte[] send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request + " answered " + response.statusCode());
+        }
+
+        return response.body();
+    }
+}
@@ -0,0 +1,254 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures lookups in {@link UserRepository} depending on the number of stored users. Lookups by id are compared
+ * with a {@link ConcurrentHashMap} keyed by the id strings, as the repository was before {@link UserIdMap}. Pages of
+ * users, searches by username prefix, email or date of birth and statistics are compared with sorting or scanning all
+ * users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    private static final LocalDate DATE_OF_BIRTH = LocalDate.of(1990, 10, 3);
+
+    /**
+     * The users are born on as many days up to {@link #DATE_OF_BIRTH}
+     */
+    private static final int DAYS_OF_BIRTH = 36_500;
+
+    @Param({"1000", "100000", "1000000"})
+    private int storedUsers;
+
+    /**
+     * The layout of the stored users, see {@code users.store}
+     */
+    @Param({"heap", "compact"})
+    private String store;
+
+    private UserRepository repository;
+
+    private String[] usernames;
+    private UserId[] ids;
+    private String[] idStrings;
+
+    private ConcurrentHashMap<String, User> usersByIdString;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repository = new UserRepository(store.equals("compact") ? new CompactUserStore() : new HeapUserStore(), UserJournal.NONE);
+        usernames = new String[storedUsers];
+        ids = new UserId[storedUsers];
+        idStrings = new String[storedUsers];
+        usersByIdString = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < storedUsers; i++) {
+            usernames[i] = "user_" + i;
+            ids[i] = UserId.of(UUID.randomUUID());
+            idStrings[i] = ids[i].toString();
+
+            User user = new User(usernames[i], usernames[i] + "@fakemail.com", DATE_OF_BIRTH.minusDays(i % DAYS_OF_BIRTH));
+            repository.save(ids[i], user);
+            usersByIdString.put(idStrings[i], user);
+        }
+    }
+
+    @Benchmark
+    public Optional<User> getById() {
+        return repository.getById(ids[ThreadLocalRandom.current().nextInt(storedUsers)]);
+    }
+
+    /**
+     * Includes parsing the id like the endpoint does
+     */
+    @Benchmark
+    public Optional<User> getByParsedId() {
+        return repository.getById(UserId.parse(requestedId()));
+    }
+
+    @Benchmark
+    public Optional<User> getByIdFromStringMap() {
+        return Optional.ofNullable(usersByIdString.get(requestedId()));
+    }
+
+    /**
+     * A new string like the one of a request path, which neither has its hash code cached nor is identical with the
+     * stored key
+     */
+    private String requestedId() {
+        return new String(idStrings[ThreadLocalRandom.current().nextInt(storedUsers)]);
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return repository.findByUsername(usernames[ThreadLocalRandom.current().nextInt(storedUsers)]);
+    }
+
+    @Benchmark
+    public Optional<User> findByUnknownUsername() {
+        return repository.findByUsername("unknown");
+    }
+
+    @Benchmark
+    public Map<UserId, User> findByEmail() {
+        return repository.findByEmail(usernames[ThreadLocalRandom.current().nextInt(storedUsers)] + "@FakeMail.com");
+    }
+
+    /**
+     * The same users by scanning all users, as a search without email index has to
+     */
+    @Benchmark
+    public Map<UserId, User> findByEmailByScanning() {
+        String email = UserRepository.normalize(usernames[ThreadLocalRandom.current().nextInt(storedUsers)] + "@FakeMail.com");
+        Map<UserId, User> users = new LinkedHashMap<>();
+
+        repository.forEach((id, user) -> {
+            if (UserRepository.normalize(user.getEmail()).equals(email)) {
+                users.put(id, user);
+            }
+        });
+
+        return users;
+    }
+
+    /**
+     * The first 20 users born in the 10 days after a random day, through the date of birth index
+     */
+    @Benchmark
+    public Map<UserId, User> findByDateOfBirth() {
+        long bornAfter = DATE_OF_BIRTH.toEpochDay() - ThreadLocalRandom.current().nextInt(DAYS_OF_BIRTH);
+        return repository.findByDateOfBirth(bornAfter, bornAfter + 11, null, 20);
+    }
+
+    /**
+     * The same users by scanning and sorting all users born in the range, as a search without index has to
+     */
+    @Benchmark
+    public Map<UserId, User> findByDateOfBirthByScanning() {
+        LocalDate bornAfter = DATE_OF_BIRTH.minusDays(ThreadLocalRandom.current().nextInt(DAYS_OF_BIRTH));
+        LocalDate bornBefore = bornAfter.plusDays(11);
+        TreeMap<DateOfBirthKey, User> found = new TreeMap<>();
+
+        repository.forEach((id, user) -> {
+            if (user.getDateOfBirth().isAfter(bornAfter) && user.getDateOfBirth().isBefore(bornBefore)) {
+                found.put(DateOfBirthKey.of(id, user), user);
+            }
+        });
+
+        Map<UserId, User> users = new LinkedHashMap<>();
+        found.entrySet().stream()
+                .limit(20)
+                .forEach(entry -> users.put(entry.getKey().getId(), entry.getValue()));
+
+        return users;
+    }
+
+    @Benchmark
+    public UserStats stats() {
+        return repository.stats();
+    }
+
+    /**
+     * The same counts by scanning all users, as without counters
+     */
+    @Benchmark
+    public UserStats statsByScanning() {
+        LongAdder total = new LongAdder();
+        Map<Integer, Long> byBirthYear = new TreeMap<>();
+        Map<String, Long> byEmailDomain = new TreeMap<>();
+
+        repository.forEach((id, user) -> {
+            total.increment();
+            byBirthYear.merge(user.getDateOfBirth().getYear(), 1L, Long::sum);
+            byEmailDomain.merge(UserStatistics.domainOf(user.getEmail()), 1L, Long::sum);
+        });
+
+        return new UserStats(total.sum(), byBirthYear, byEmailDomain, 0);
+    }
+
+    /**
+     * Up to 10 users whose usernames start like a random one, through the ordered username index. Sampled for the
+     * latency percentiles.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Map<UserId, User> findByUsernamePrefix() {
+        return repository.findByUsernamePrefix(usernamePrefix(), 10);
+    }
+
+    /**
+     * The same users by scanning all users, as a search without ordered index has to
+     */
+    @Benchmark
+    public Map<UserId, User> findByUsernamePrefixByScanning() {
+        String prefix = usernamePrefix();
+        TreeMap<String, UserId> found = new TreeMap<>();
+
+        repository.forEach((id, user) -> {
+            if (user.getUsername().startsWith(prefix)) {
+                found.put(user.getUsername(), id);
+            }
+        });
+
+        Map<UserId, User> users = new LinkedHashMap<>();
+        found.values().stream()
+                .limit(10)
+                .forEach(id -> users.put(id, repository.getById(id).get()));
+
+        return users;
+    }
+
+    /**
+     * A username without its last digit, which all usernames with one more digit start with too
+     */
+    private String usernamePrefix() {
+        String username = usernames[ThreadLocalRandom.current().nextInt(storedUsers)];
+        return username.substring(0, username.length() - 1);
+    }
+
+    /**
+     * A page of 20 users after a random cursor through the ordered id index
+     */
+    @Benchmark
+    public Map<UserId, User> listPage() {
+        return repository.list(ids[ThreadLocalRandom.current().nextInt(storedUsers)], 20);
+    }
+
+    /**
+     * The same page by sorting all users, as a listing without ordered index has to
+     */
+    @Benchmark
+    public Map<UserId, User> listPageBySorting() {
+        UserId after = ids[ThreadLocalRandom.current().nextInt(storedUsers)];
+        TreeMap<UserId, User> sorted = new TreeMap<>();
+        repository.forEach(sorted::put);
+
+        Map<UserId, User> page = new LinkedHashMap<>();
+        for (Map.Entry<UserId, User> entry : sorted.tailMap(after, false).entrySet()) {
+            if (page.size() == 20) {
+                break;
+            }
+
+            page.put(entry.getKey(), entry.getValue());
+        }
+
+        return page;
+    }
+}
@@ -0,0 +1,68 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the latency of {@link UserService#create(User)} depending on the number of already stored users
+ * and the number of concurrently creating threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final LocalDate DATE_OF_BIRTH = LocalDate.of(1990, 10, 3);
+
+    @Param({"1000", "100000", "1000000"})
+    private int storedUsers;
+
+    private UserService service;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        service = new UserService(
+                new UserRepository(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new RandomIdGenerator(),
+                UserMetrics.NONE
+        );
+        sequence.set(0);
+
+        for (int i = 0; i < storedUsers; i++) {
+            service.create(nextUser());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public WriteResult create() {
+        return service.create(nextUser());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WriteResult create4Threads() {
+        return service.create(nextUser());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public WriteResult create16Threads() {
+        return service.create(nextUser());
+    }
+
+    private User nextUser() {
+        long number = sequence.incrementAndGet();
+        return new User("user_" + number, "user_" + number + "@fakemail.com", DATE_OF_BIRTH);
+    }
+}
@@ -0,0 +1,80 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to restore a {@link UserRepository} on startup, from a {@link UserSnapshot} and from a
+ * {@link FileUserJournal}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class UserStartupBenchmark {
+
+    private static final LocalDate DATE_OF_BIRTH = LocalDate.of(1990, 10, 3);
+
+    @Param({"1000000", "10000000"})
+    private int storedUsers;
+
+    private Path directory;
+    private Path snapshot;
+    private Path journal;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("user-startup-benchmark");
+        snapshot = directory.resolve("users.snapshot");
+        journal = directory.resolve("users.journal");
+
+        UserRepository repository = new UserRepository();
+
+        try (FileUserJournal userJournal = new FileUserJournal(journal)) {
+            CompletableFuture<Void> lastAppend = null;
+
+            for (int i = 0; i < storedUsers; i++) {
+                UserId id = UserId.of(UUID.randomUUID());
+                User user = new User("user_" + i, "user_" + i + "@fakemail.com", DATE_OF_BIRTH.minusDays(i % 20000));
+
+                repository.save(id, user);
+                lastAppend = userJournal.append(id, user);
+            }
+
+            lastAppend.join();
+        }
+
+        UserSnapshot.write(snapshot, repository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(snapshot);
+        Files.delete(journal);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public UserRepository loadSnapshot() throws IOException {
+        UserRepository repository = new UserRepository();
+        UserSnapshot.load(snapshot, repository::restore);
+
+        return repository;
+    }
+
+    @Benchmark
+    public UserRepository replayJournal() throws IOException {
+        try (FileUserJournal userJournal = new FileUserJournal(journal)) {
+            return new UserRepository(new HeapUserStore(), userJournal);
+        }
+    }
+}
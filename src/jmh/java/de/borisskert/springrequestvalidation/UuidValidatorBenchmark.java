@@ -0,0 +1,37 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link UuidValidator} with the regular expression {@link Uuid} used to be composed of.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidValidatorBenchmark {
+
+    private static final Pattern PATTERN = Pattern.compile(UuidValidator.PATTERN);
+
+    @Param({
+            "6e9f59fa-cc85-4096-9165-7a3661fd6bc0",
+            "6e9f59fa-cc85-4096-9165-7a3661fd6bcx",
+            "444"
+    })
+    private String id;
+
+    @Benchmark
+    public boolean regex() {
+        return PATTERN.matcher(id).matches();
+    }
+
+    @Benchmark
+    public boolean validator() {
+        return UuidValidator.isUuid(id);
+    }
+}
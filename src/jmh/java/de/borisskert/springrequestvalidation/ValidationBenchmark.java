@@ -0,0 +1,80 @@
+package de.borisskert.springrequestvalidation;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.executable.ExecutableValidator;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Bean Validation of request bodies and path variables as done for {@link UsersEndpoint}, reflective by
+ * Hibernate Validator or by the {@link PrecompiledValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final User VALID_USER = new User("my_username", "my@fakemail.com", LocalDate.of(1990, 10, 3));
+    private static final User INVALID_USER = new User("", "not_a_email", LocalDate.now().plusYears(1));
+
+    private static final Object[] VALID_ID = {"6e9f59fa-cc85-4096-9165-7a3661fd6bc0", null};
+    private static final Object[] INVALID_ID = {"6e9f59fa-cc85-4096-9165-7a3661fd6bcx", null};
+
+    @Param({"reflective", "precompiled"})
+    private String validation;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private ExecutableValidator executableValidator;
+
+    private UsersEndpoint endpoint;
+    private Method getUserById;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validation.equals("precompiled")
+                ? new PrecompiledValidator(validatorFactory, User.class, UsersEndpoint.class)
+                : validatorFactory.getValidator();
+        executableValidator = validator.forExecutables();
+
+        endpoint = new UsersEndpoint(null, null, null, 0);
+        getUserById = UsersEndpoint.class.getMethod("getUserById", String.class, WebRequest.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> validUser() {
+        return validator.validate(VALID_USER);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> invalidUser() {
+        return validator.validate(INVALID_USER);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UsersEndpoint>> validUuid() {
+        return executableValidator.validateParameters(endpoint, getUserById, VALID_ID);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<UsersEndpoint>> invalidUuid() {
+        return executableValidator.validateParameters(endpoint, getUserById, INVALID_ID);
+    }
+}
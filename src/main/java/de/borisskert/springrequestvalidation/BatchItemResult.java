@@ -0,0 +1,75 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Result of one user within a batch creation
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        CONFLICT
+    }
+
+    private final int index;
+    private final Status status;
+    private final String id;
+    private final List<String> errors;
+
+    private BatchItemResult(int index, Status status, String id, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public static BatchItemResult created(int index, String id) {
+        return new BatchItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult invalid(int index, List<String> errors) {
+        return new BatchItemResult(index, Status.INVALID, null, errors);
+    }
+
+    public static BatchItemResult conflict(int index, String error) {
+        return new BatchItemResult(index, Status.CONFLICT, null, List.of(error));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchItemResult that = (BatchItemResult) o;
+        return index == that.index &&
+                status == that.status &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, status, id, errors);
+    }
+}
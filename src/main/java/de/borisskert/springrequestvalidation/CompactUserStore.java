@@ -0,0 +1,875 @@
+package de.borisskert.springrequestvalidation;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps users in primitive arrays instead of objects: ids as two longs, dates of birth as epoch-day ints and usernames
+ * and emails as UTF-8 bytes packed into shared byte arrays. {@link User} objects are materialized only on read.
+ * Costs about 220 bytes per user instead of about 360 bytes of the {@link HeapUserStore} (see README).
+ * <p>
+ * Users are striped into {@link IdSegment}s by id, their usernames into {@link UsernameSegment}s by username and their
+ * normalized emails into {@link EmailSegment}s by email, each guarded by its own read-write lock. A put locks the
+ * username segment first, the email segment then and the id segment last; id segments are locked one at a time only,
+ * so the locks can't deadlock.
+ * <p>
+ * The username order is a skip list of {@link UsernameKey}s referencing the records, compared by the UTF-8 bytes of
+ * their usernames. Records are never moved and keep their bytes when removed, so keys can be compared without copying
+ * the usernames, also after their records have been removed.
+ */
+public class CompactUserStore implements UserStore {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IdSegment[] idSegments = new IdSegment[SEGMENTS];
+    private final UsernameSegment[] usernameSegments = new UsernameSegment[SEGMENTS];
+    private final EmailSegment[] emailSegments = new EmailSegment[SEGMENTS];
+
+    /**
+     * Updated after the locks of a put or remove are released, since comparing keys takes the locks of their segments
+     */
+    private final ConcurrentSkipListSet<UsernameKey> usernameOrder = new ConcurrentSkipListSet<>(this::compare);
+
+    public CompactUserStore() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            idSegments[i] = new IdSegment();
+            usernameSegments[i] = new UsernameSegment();
+            emailSegments[i] = new EmailSegment();
+        }
+    }
+
+    @Override
+    public User get(UserId id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int hash = UserId.hash(msb, lsb);
+
+        IdSegment segment = idSegments[segmentOf(hash)];
+        segment.lock.readLock().lock();
+
+        try {
+            int record = segment.find(hash, msb, lsb);
+            return record < 0 ? null : segment.materialize(record);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorts the ids by segment first, so each segment is locked once for all of its ids
+     */
+    @Override
+    public User[] getAll(UserId[] ids) {
+        int[] hashes = new int[ids.length];
+        int[] segmentStarts = new int[SEGMENTS + 1];
+
+        for (int position = 0; position < ids.length; position++) {
+            hashes[position] = UserId.hash(ids[position].getMostSignificantBits(), ids[position].getLeastSignificantBits());
+            segmentStarts[segmentOf(hashes[position]) + 1]++;
+        }
+
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            segmentStarts[segment + 1] += segmentStarts[segment];
+        }
+
+        int[] positionsBySegment = new int[ids.length];
+        int[] next = Arrays.copyOf(segmentStarts, SEGMENTS);
+
+        for (int position = 0; position < ids.length; position++) {
+            positionsBySegment[next[segmentOf(hashes[position])]++] = position;
+        }
+
+        User[] users = new User[ids.length];
+
+        for (int segmentIndex = 0; segmentIndex < SEGMENTS; segmentIndex++) {
+            if (segmentStarts[segmentIndex] == segmentStarts[segmentIndex + 1]) {
+                continue;
+            }
+
+            IdSegment segment = idSegments[segmentIndex];
+            segment.lock.readLock().lock();
+
+            try {
+                for (int i = segmentStarts[segmentIndex]; i < segmentStarts[segmentIndex + 1]; i++) {
+                    int position = positionsBySegment[i];
+                    UserId id = ids[position];
+                    int record = segment.find(hashes[position], id.getMostSignificantBits(), id.getLeastSignificantBits());
+
+                    users[position] = record < 0 ? null : segment.materialize(record);
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+
+        return users;
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        byte[] bytes = toBytes(username);
+        int hash = hash(username);
+
+        UsernameSegment segment = usernameSegments[segmentOf(hash)];
+        segment.lock.readLock().lock();
+
+        try {
+            long reference = segment.find(hash, bytes);
+
+            if (reference < 0) {
+                return null;
+            }
+
+            IdSegment idSegment = idSegmentOf(reference);
+            idSegment.lock.readLock().lock();
+
+            try {
+                return idSegment.materialize(recordOf(reference));
+            } finally {
+                idSegment.lock.readLock().unlock();
+            }
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Usernames are ordered by their UTF-8 bytes, which is the order of their code points
+     */
+    @Override
+    public Map<UserId, User> findByUsernamePrefix(String prefix, int limit) {
+        byte[] bytes = toBytes(prefix);
+        Map<UserId, User> found = new LinkedHashMap<>();
+
+        for (UsernameKey key : usernameOrder.tailSet(UsernameKey.probe(bytes))) {
+            if (found.size() >= limit) {
+                break;
+            }
+
+            IdSegment segment = idSegmentOf(key.reference);
+            int record = recordOf(key.reference);
+            segment.lock.readLock().lock();
+
+            try {
+                if (!segment.bytes.startsWith(segment.usernameOf(record), bytes)) {
+                    break;
+                }
+
+                // removed since found in the username order
+                if (!segment.isRemoved(record)) {
+                    found.put(segment.idOf(record), segment.materialize(record));
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Compares the normalized emails of the records whose emails have the same hash
+     */
+    @Override
+    public Map<UserId, User> findByEmail(String email) {
+        String normalized = UserRepository.normalize(email);
+        int hash = hash(normalized);
+        Map<UserId, User> found = new LinkedHashMap<>();
+
+        EmailSegment segment = emailSegments[segmentOf(hash)];
+        segment.lock.readLock().lock();
+
+        try {
+            segment.forEachMatch(hash, normalized, reference -> {
+                IdSegment idSegment = idSegmentOf(reference);
+                idSegment.lock.readLock().lock();
+
+                try {
+                    found.put(idSegment.idOf(recordOf(reference)), idSegment.materialize(recordOf(reference)));
+                } finally {
+                    idSegment.lock.readLock().unlock();
+                }
+            });
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+
+        return found;
+    }
+
+    @Override
+    public SaveResult putIfAbsent(UserId id, User user, boolean uniqueEmail) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int idHash = UserId.hash(msb, lsb);
+
+        byte[] username = toBytes(user.getUsername());
+        int usernameHash = hash(user.getUsername());
+
+        String email = UserRepository.normalize(user.getEmail());
+        int emailHash = hash(email);
+
+        int idSegmentIndex = segmentOf(idHash);
+        IdSegment idSegment = idSegments[idSegmentIndex];
+        UsernameSegment usernameSegment = usernameSegments[segmentOf(usernameHash)];
+        EmailSegment emailSegment = emailSegments[segmentOf(emailHash)];
+        long reference;
+
+        usernameSegment.lock.writeLock().lock();
+
+        try {
+            boolean usernameExists = usernameSegment.find(usernameHash, username) >= 0;
+            emailSegment.lock.writeLock().lock();
+
+            try {
+                boolean emailExists = uniqueEmail && emailSegment.find(emailHash, email) >= 0;
+                idSegment.lock.writeLock().lock();
+
+                try {
+                    if (idSegment.find(idHash, msb, lsb) >= 0) {
+                        return SaveResult.ID_EXISTS;
+                    }
+
+                    if (usernameExists) {
+                        return SaveResult.USERNAME_EXISTS;
+                    }
+
+                    if (emailExists) {
+                        return SaveResult.EMAIL_EXISTS;
+                    }
+
+                    int record = idSegment.add(idHash, msb, lsb, username, toBytes(user.getEmail()), user.getDateOfBirth());
+                    reference = referenceOf(idSegmentIndex, record);
+                    usernameSegment.add(usernameHash, reference);
+                    emailSegment.add(emailHash, reference);
+                } finally {
+                    idSegment.lock.writeLock().unlock();
+                }
+            } finally {
+                emailSegment.lock.writeLock().unlock();
+            }
+        } finally {
+            usernameSegment.lock.writeLock().unlock();
+        }
+
+        usernameOrder.add(new UsernameKey(reference));
+
+        return SaveResult.SAVED;
+    }
+
+    @Override
+    public void remove(UserId id, User user) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int idHash = UserId.hash(msb, lsb);
+        int usernameHash = hash(user.getUsername());
+        int emailHash = hash(UserRepository.normalize(user.getEmail()));
+
+        int idSegmentIndex = segmentOf(idHash);
+        IdSegment idSegment = idSegments[idSegmentIndex];
+        UsernameSegment usernameSegment = usernameSegments[segmentOf(usernameHash)];
+        EmailSegment emailSegment = emailSegments[segmentOf(emailHash)];
+        long reference = -1;
+
+        usernameSegment.lock.writeLock().lock();
+
+        try {
+            emailSegment.lock.writeLock().lock();
+
+            try {
+                idSegment.lock.writeLock().lock();
+
+                try {
+                    int record = idSegment.find(idHash, msb, lsb);
+
+                    if (record >= 0 && user.equals(idSegment.materialize(record))) {
+                        reference = referenceOf(idSegmentIndex, record);
+                        idSegment.remove(idHash, record);
+                        usernameSegment.remove(usernameHash, reference);
+                        emailSegment.remove(emailHash, reference);
+                    }
+                } finally {
+                    idSegment.lock.writeLock().unlock();
+                }
+            } finally {
+                emailSegment.lock.writeLock().unlock();
+            }
+        } finally {
+            usernameSegment.lock.writeLock().unlock();
+        }
+
+        if (reference >= 0) {
+            usernameOrder.remove(new UsernameKey(reference));
+        }
+    }
+
+    /**
+     * Holds the read lock of a segment only while materializing a chunk of its users, not while calling the action
+     */
+    @Override
+    public void forEach(BiConsumer<UserId, User> action) {
+        int chunkSize = 1024;
+        UserId[] ids = new UserId[chunkSize];
+        User[] users = new User[chunkSize];
+
+        for (IdSegment segment : idSegments) {
+            int next = 0;
+            boolean hasMore;
+
+            do {
+                int count = 0;
+                segment.lock.readLock().lock();
+
+                try {
+                    for (; next < segment.records && count < chunkSize; next++) {
+                        if (!segment.isRemoved(next)) {
+                            ids[count] = segment.idOf(next);
+                            users[count] = segment.materialize(next);
+                            count++;
+                        }
+                    }
+
+                    hasMore = next < segment.records;
+                } finally {
+                    segment.lock.readLock().unlock();
+                }
+
+                for (int i = 0; i < count; i++) {
+                    action.accept(ids[i], users[i]);
+                }
+            } while (hasMore);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+
+        for (IdSegment segment : idSegments) {
+            size += segment.size;
+        }
+
+        return size;
+    }
+
+    /**
+     * Compares the usernames of the keys, then their references. A probe sorts before the stored keys of its username.
+     * The locks of the segments are taken one after the other, only to read the current packed bytes: bytes are only
+     * appended, so the array read holds the username also if it has been grown since.
+     */
+    private int compare(UsernameKey left, UsernameKey right) {
+        byte[] leftBytes = left.probe;
+        int leftOffset = 0;
+        byte[] rightBytes = right.probe;
+        int rightOffset = 0;
+
+        if (leftBytes == null) {
+            IdSegment segment = idSegmentOf(left.reference);
+            segment.lock.readLock().lock();
+
+            try {
+                leftBytes = segment.bytes.bytes;
+                leftOffset = segment.usernameOf(recordOf(left.reference));
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+
+        if (rightBytes == null) {
+            IdSegment segment = idSegmentOf(right.reference);
+            segment.lock.readLock().lock();
+
+            try {
+                rightBytes = segment.bytes.bytes;
+                rightOffset = segment.usernameOf(recordOf(right.reference));
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+
+        int leftStart = left.probe == null ? PackedStrings.startOf(leftBytes, leftOffset) : 0;
+        int leftEnd = left.probe == null ? PackedStrings.endOf(leftBytes, leftOffset) : leftBytes.length;
+        int rightStart = right.probe == null ? PackedStrings.startOf(rightBytes, rightOffset) : 0;
+        int rightEnd = right.probe == null ? PackedStrings.endOf(rightBytes, rightOffset) : rightBytes.length;
+
+        int compared = Arrays.compareUnsigned(leftBytes, leftStart, leftEnd, rightBytes, rightStart, rightEnd);
+
+        return compared != 0 ? compared : Long.compare(left.reference, right.reference);
+    }
+
+    private IdSegment idSegmentOf(long reference) {
+        return idSegments[(int) (reference >>> Integer.SIZE)];
+    }
+
+    private static int hash(String username) {
+        int hash = username.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int segmentOf(int hash) {
+        return hash >>> (Integer.SIZE - SEGMENT_BITS);
+    }
+
+    private static int recordOf(long reference) {
+        return (int) reference;
+    }
+
+    private static long referenceOf(int segment, int record) {
+        return ((long) segment << Integer.SIZE) | record;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Users with open addressing by id. The records are appended to the arrays and never moved, removed records are
+     * only marked as removed.
+     */
+    private static class IdSegment {
+        private static final int EMPTY = 0;
+        private static final int REMOVED = -1;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Slots of the hash table: the record index + 1, {@link #EMPTY} or {@link #REMOVED}
+         */
+        private int[] slots = new int[INITIAL_CAPACITY * 2];
+        private int usedSlots;
+
+        private long[] msbs = new long[INITIAL_CAPACITY];
+        private long[] lsbs = new long[INITIAL_CAPACITY];
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+
+        /**
+         * Offsets of username and email in {@link #bytes}, a username offset inverted by {@code ~} marks a removed
+         * record (see {@link #usernameOf(int)})
+         */
+        private int[] usernames = new int[INITIAL_CAPACITY];
+        private int[] emails = new int[INITIAL_CAPACITY];
+
+        private final PackedStrings bytes = new PackedStrings();
+
+        private int records;
+        private volatile int size;
+
+        private int find(int hash, long msb, long lsb) {
+            int mask = slots.length - 1;
+
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                int slot = slots[index];
+
+                if (slot == EMPTY) {
+                    return -1;
+                }
+
+                if (slot != REMOVED && msbs[slot - 1] == msb && lsbs[slot - 1] == lsb) {
+                    return slot - 1;
+                }
+            }
+        }
+
+        private int add(int hash, long msb, long lsb, byte[] username, byte[] email, LocalDate dateOfBirth) {
+            if (records == msbs.length) {
+                int capacity = records * 2;
+
+                msbs = Arrays.copyOf(msbs, capacity);
+                lsbs = Arrays.copyOf(lsbs, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+            }
+
+            int record = records;
+
+            msbs[record] = msb;
+            lsbs[record] = lsb;
+            epochDays[record] = UserRecords.toEpochDay(dateOfBirth);
+            usernames[record] = bytes.add(username);
+            emails[record] = bytes.add(email);
+
+            insertSlot(hash, record + 1);
+
+            records++;
+            size++;
+
+            return record;
+        }
+
+        private void remove(int hash, int record) {
+            int mask = slots.length - 1;
+
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                if (slots[index] == record + 1) {
+                    slots[index] = REMOVED;
+                    break;
+                }
+            }
+
+            usernames[record] = ~usernames[record];
+            size--;
+        }
+
+        private boolean isRemoved(int record) {
+            return usernames[record] < 0;
+        }
+
+        /**
+         * @return the offset of the username in {@link #bytes}, also of a removed record
+         */
+        private int usernameOf(int record) {
+            int offset = usernames[record];
+            return offset < 0 ? ~offset : offset;
+        }
+
+        private UserId idOf(int record) {
+            return new UserId(msbs[record], lsbs[record]);
+        }
+
+        private User materialize(int record) {
+            return new User(
+                    bytes.get(usernames[record]),
+                    bytes.get(emails[record]),
+                    UserRecords.toLocalDate(epochDays[record])
+            );
+        }
+
+        private void insertSlot(int hash, int slot) {
+            if ((usedSlots + 1) * 2 > slots.length) {
+                rehash();
+            }
+
+            int mask = slots.length - 1;
+            int index = hash & mask;
+
+            while (slots[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            slots[index] = slot;
+            usedSlots++;
+        }
+
+        /**
+         * Grows the table if needed and drops the slots marked as removed
+         */
+        private void rehash() {
+            int capacity = Math.max(slots.length, Integer.highestOneBit(size + 1) * 4);
+            int[] rehashed = new int[capacity];
+            int mask = capacity - 1;
+
+            usedSlots = 0;
+
+            for (int slot : slots) {
+                if (slot != EMPTY && slot != REMOVED) {
+                    int index = UserId.hash(msbs[slot - 1], lsbs[slot - 1]) & mask;
+
+                    while (rehashed[index] != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+
+                    rehashed[index] = slot;
+                    usedSlots++;
+                }
+            }
+
+            slots = rehashed;
+        }
+    }
+
+    /**
+     * Username index with open addressing by username
+     */
+    private class UsernameSegment extends ReferenceSegment<byte[]> {
+        @Override
+        protected boolean matches(IdSegment segment, int record, byte[] username) {
+            return segment.bytes.matches(segment.usernameOf(record), username);
+        }
+    }
+
+    /**
+     * Email index with open addressing by normalized email. Emails are not unique necessarily, so an email may be
+     * referenced more than once.
+     */
+    private class EmailSegment extends ReferenceSegment<String> {
+        @Override
+        protected boolean matches(IdSegment segment, int record, String email) {
+            return email.equals(UserRepository.normalize(segment.bytes.get(segment.emails[record])));
+        }
+    }
+
+    /**
+     * Hash table with open addressing by the hash of a key, referencing the records of the {@link IdSegment}s.
+     * Members used by the store are package-private, as private ones can't be accessed through the subclasses.
+     *
+     * @param <K> type of the keys, which are compared with the records
+     */
+    private abstract class ReferenceSegment<K> {
+        private static final long EMPTY = -1;
+        private static final long REMOVED = -2;
+
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long[] references = newReferences(INITIAL_CAPACITY * 2);
+        private int[] hashes = new int[INITIAL_CAPACITY * 2];
+
+        private int usedSlots;
+        private int size;
+
+        /**
+         * Compares the keys of the referenced records under the read lock of their {@link IdSegment}
+         */
+        protected abstract boolean matches(IdSegment segment, int record, K key);
+
+        /**
+         * @return the first reference of a record matching the key, -1 if there is none
+         */
+        long find(int hash, K key) {
+            int mask = references.length - 1;
+
+            for (int index = hash & mask; ; index = (index + 1) & mask) {
+                long reference = references[index];
+
+                if (reference == EMPTY) {
+                    return -1;
+                }
+
+                if (reference != REMOVED && hashes[index] == hash && matches(reference, key)) {
+                    return reference;
+                }
+            }
+        }
+
+        void forEachMatch(int hash, K key, LongConsumer action) {
+            int mask = references.length - 1;
+
+            for (int index = hash & mask; references[index] != EMPTY; index = (index + 1) & mask) {
+                long reference = references[index];
+
+                if (reference != REMOVED && hashes[index] == hash && matches(reference, key)) {
+                    action.accept(reference);
+                }
+            }
+        }
+
+        void add(int hash, long reference) {
+            if ((usedSlots + 1) * 2 > references.length) {
+                rehash();
+            }
+
+            int mask = references.length - 1;
+            int index = hash & mask;
+
+            while (references[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+
+            references[index] = reference;
+            hashes[index] = hash;
+
+            usedSlots++;
+            size++;
+        }
+
+        void remove(int hash, long reference) {
+            int mask = references.length - 1;
+
+            for (int index = hash & mask; references[index] != EMPTY; index = (index + 1) & mask) {
+                if (references[index] == reference) {
+                    references[index] = REMOVED;
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private boolean matches(long reference, K key) {
+            IdSegment segment = idSegmentOf(reference);
+            segment.lock.readLock().lock();
+
+            try {
+                return matches(segment, recordOf(reference), key);
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+
+        private void rehash() {
+            int capacity = Math.max(references.length, Integer.highestOneBit(size + 1) * 4);
+            long[] rehashedReferences = newReferences(capacity);
+            int[] rehashedHashes = new int[capacity];
+            int mask = capacity - 1;
+
+            for (int i = 0; i < references.length; i++) {
+                if (references[i] != EMPTY && references[i] != REMOVED) {
+                    int index = hashes[i] & mask;
+
+                    while (rehashedReferences[index] != EMPTY) {
+                        index = (index + 1) & mask;
+                    }
+
+                    rehashedReferences[index] = references[i];
+                    rehashedHashes[index] = hashes[i];
+                }
+            }
+
+            references = rehashedReferences;
+            hashes = rehashedHashes;
+            usedSlots = size;
+        }
+
+        private long[] newReferences(int capacity) {
+            long[] references = new long[capacity];
+            Arrays.fill(references, EMPTY);
+
+            return references;
+        }
+    }
+
+    /**
+     * References a record of an {@link IdSegment} in the {@link #usernameOrder}, or holds the username bytes to search
+     * for
+     */
+    private static final class UsernameKey {
+        private final long reference;
+        private final byte[] probe;
+
+        private UsernameKey(long reference) {
+            this(reference, null);
+        }
+
+        private UsernameKey(long reference, byte[] probe) {
+            this.reference = reference;
+            this.probe = probe;
+        }
+
+        private static UsernameKey probe(byte[] username) {
+            return new UsernameKey(-1, username);
+        }
+    }
+
+    /**
+     * Strings packed as UTF-8 into a growing byte array, each prefixed by its length + 1 as unsigned varint
+     * (0 stands for null)
+     */
+    private static class PackedStrings {
+        private byte[] bytes = new byte[INITIAL_CAPACITY * 32];
+        private int length;
+
+        /**
+         * @return the offset of the added string
+         */
+        private int add(byte[] value) {
+            int valueLength = value == null ? 0 : value.length;
+            ensureCapacity(5 + valueLength);
+
+            int offset = length;
+            int prefix = value == null ? 0 : valueLength + 1;
+
+            while ((prefix & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((prefix & 0x7F) | 0x80);
+                prefix >>>= 7;
+            }
+
+            bytes[length++] = (byte) prefix;
+
+            if (value != null) {
+                System.arraycopy(value, 0, bytes, length, valueLength);
+                length += valueLength;
+            }
+
+            return offset;
+        }
+
+        private String get(int offset) {
+            int prefix = prefixAt(offset);
+
+            if (prefix == 0) {
+                return null;
+            }
+
+            return new String(bytes, offset + sizeOf(prefix), prefix - 1, StandardCharsets.UTF_8);
+        }
+
+        private boolean matches(int offset, byte[] value) {
+            int prefix = prefixAt(offset);
+
+            if (prefix == 0 || value == null) {
+                return prefix == 0 && value == null;
+            }
+
+            int start = offset + sizeOf(prefix);
+            return Arrays.equals(bytes, start, start + prefix - 1, value, 0, value.length);
+        }
+
+        private boolean startsWith(int offset, byte[] prefix) {
+            int start = startOf(bytes, offset);
+            int end = endOf(bytes, offset);
+
+            return end - start >= prefix.length && Arrays.equals(bytes, start, start + prefix.length, prefix, 0, prefix.length);
+        }
+
+        /**
+         * @return the offset of the first byte of the non-null string at the specified offset of the array
+         */
+        private static int startOf(byte[] bytes, int offset) {
+            return offset + sizeOf(prefixAt(bytes, offset));
+        }
+
+        /**
+         * @return the offset behind the last byte of the non-null string at the specified offset of the array
+         */
+        private static int endOf(byte[] bytes, int offset) {
+            int prefix = prefixAt(bytes, offset);
+            return offset + sizeOf(prefix) + prefix - 1;
+        }
+
+        private int prefixAt(int offset) {
+            return prefixAt(bytes, offset);
+        }
+
+        private static int prefixAt(byte[] bytes, int offset) {
+            int prefix = 0;
+            int shift = 0;
+            byte current;
+
+            do {
+                current = bytes[offset++];
+                prefix |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+
+            return prefix;
+        }
+
+        private static int sizeOf(int prefix) {
+            int size = 1;
+
+            while ((prefix & ~0x7F) != 0) {
+                prefix >>>= 7;
+                size++;
+            }
+
+            return size;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                long doubled = Math.min(bytes.length * 2L, Integer.MAX_VALUE - 8);
+                bytes = Arrays.copyOf(bytes, (int) Math.max(doubled, length + additional));
+            }
+        }
+    }
+}
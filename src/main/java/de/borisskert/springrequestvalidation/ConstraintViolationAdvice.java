@@ -1,28 +1,30 @@
 package de.borisskert.springrequestvalidation;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.ServletWebRequest;
 
 import javax.validation.ConstraintViolationException;
-import java.io.IOException;
 
 /**
  * https://stackoverflow.com/a/58614581
+ * <p>
+ * Answers invalid path variables and request parameters with a precomputed body (see {@link ErrorResponses}).
  */
 @ControllerAdvice
 public class ConstraintViolationAdvice {
 
+    private final UserMetrics metrics;
+
+    @Autowired
+    public ConstraintViolationAdvice(UserMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
-    public void handleConstraintViolationException(
-            ConstraintViolationException exception,
-            ServletWebRequest webRequest
-    ) throws IOException {
-        webRequest.getResponse()
-                .sendError(
-                        HttpStatus.BAD_REQUEST.value(),
-                        exception.getMessage()
-                );
+    public ResponseEntity<byte[]> handleConstraintViolationException(ConstraintViolationException exception) {
+        metrics.violated(exception.getConstraintViolations());
+        return ErrorResponses.INVALID_PARAMETER;
     }
 }
@@ -0,0 +1,23 @@
+package de.borisskert.springrequestvalidation;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Accepts cursors of pages of users by date of birth, see {@link DateOfBirthKey}
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Constraint(validatedBy = DateOfBirthCursorValidator.class)
+@Retention(RUNTIME)
+public @interface DateOfBirthCursor {
+    String message() default "{invalid.cursor}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,21 @@
+package de.borisskert.springrequestvalidation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class DateOfBirthCursorValidator implements ConstraintValidator<DateOfBirthCursor, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+
+        try {
+            DateOfBirthKey.parse(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.borisskert.springrequestvalidation;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Key of a user in the date of birth index of the {@link UserRepository}: the epoch day of the date of birth and the
+ * id, so users born on the same day are ordered by id. Keys compare the epoch days as longs, without
+ * {@link LocalDate}s.
+ * <p>
+ * A key is the cursor of the pages of users by date of birth too, formatted as the date and the id, like
+ * {@code 1990-10-03_6e9f59fa-cc85-4096-9165-7a3661fd6bc0}.
+ */
+public final class DateOfBirthKey implements Comparable<DateOfBirthKey> {
+
+    private static final UserId FIRST_ID = new UserId(0L, 0L);
+    private static final char SEPARATOR = '_';
+
+    private final long epochDay;
+    private final UserId id;
+
+    DateOfBirthKey(long epochDay, UserId id) {
+        this.epochDay = epochDay;
+        this.id = id;
+    }
+
+    static DateOfBirthKey of(UserId id, User user) {
+        return new DateOfBirthKey(user.getDateOfBirth().toEpochDay(), id);
+    }
+
+    /**
+     * @return the key before all users born on the specified day
+     */
+    static DateOfBirthKey first(long epochDay) {
+        return new DateOfBirthKey(epochDay, FIRST_ID);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is no cursor
+     */
+    public static DateOfBirthKey parse(CharSequence value) {
+        int separator = value.toString().lastIndexOf(SEPARATOR);
+
+        if (separator < 0) {
+            throw new IllegalArgumentException("'" + value + "' is no cursor");
+        }
+
+        try {
+            long epochDay = LocalDate.parse(value.subSequence(0, separator)).toEpochDay();
+            return new DateOfBirthKey(epochDay, UserId.parse(value.subSequence(separator + 1, value.length())));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("'" + value + "' is no cursor", e);
+        }
+    }
+
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    public UserId getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(DateOfBirthKey other) {
+        int comparison = Long.compare(epochDay, other.epochDay);
+        return comparison != 0 ? comparison : id.compareTo(other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DateOfBirthKey that = (DateOfBirthKey) o;
+        return epochDay == that.epochDay &&
+                id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, id);
+    }
+
+    /**
+     * @return the cursor
+     */
+    @Override
+    public String toString() {
+        return LocalDate.ofEpochDay(epochDay).toString() + SEPARATOR + id;
+    }
+}
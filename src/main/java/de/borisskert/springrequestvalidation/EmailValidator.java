@@ -0,0 +1,496 @@
+package de.borisskert.springrequestvalidation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Pattern;
+import java.net.IDN;
+
+/**
+ * Validates {@link Email}s in a single pass over the characters, without regular expression, so the time is linear in
+ * the length of the address and bounded by {@link #MAX_LENGTH}. Registered for {@link Email} in
+ * {@code META-INF/constraints.xml} instead of Hibernate Validator's backtracking regular expressions.
+ * <p>
+ * Accepts what Hibernate Validator accepts: a local part of at most {@value #MAX_LOCAL_PART_LENGTH} characters made of
+ * dot separated atoms or quoted strings, an {@code @}, and a domain of dot separated labels or an IPv4 or IPv6 address
+ * in brackets, of at most {@value #MAX_DOMAIN_LENGTH} characters after IDN conversion. Only a domain longer than
+ * {@value #MAX_DOMAIN_LENGTH} characters which would shrink by IDN conversion, e.g. padded with soft hyphens, is
+ * rejected here but accepted by Hibernate Validator.
+ * <p>
+ * A {@link Email#regexp()} is matched additionally, as by Hibernate Validator, and is not bounded by this validator.
+ */
+public class EmailValidator implements ConstraintValidator<Email, CharSequence> {
+
+    public static final int MAX_LOCAL_PART_LENGTH = 64;
+    public static final int MAX_DOMAIN_LENGTH = 255;
+    public static final int MAX_LENGTH = MAX_LOCAL_PART_LENGTH + 1 + MAX_DOMAIN_LENGTH;
+
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    private static final String LETTERS_AND_DIGITS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /**
+     * ASCII characters of unquoted atoms in the local part and of domain labels
+     */
+    private static final boolean[] ATOM = asciiTable(LETTERS_AND_DIGITS + "!#$%&'*+/=?^_`{|}~-");
+
+    /**
+     * ASCII characters allowed unescaped within quoted strings in the local part
+     */
+    private static final boolean[] QUOTED = asciiTable(LETTERS_AND_DIGITS + "!#$%&'*.(),<>[]:; @+/=?^_`{|}~-");
+
+    private java.util.regex.Pattern pattern;
+
+    @Override
+    public void initialize(Email email) {
+        int flags = 0;
+
+        for (Pattern.Flag flag : email.flags()) {
+            flags |= flag.getValue();
+        }
+
+        if (!".*".equals(email.regexp()) || email.flags().length > 0) {
+            pattern = java.util.regex.Pattern.compile(email.regexp(), flags);
+        }
+    }
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+
+        boolean isEmail = isEmail(value);
+
+        if (!isEmail || pattern == null) {
+            return isEmail;
+        }
+
+        return pattern.matcher(value).matches();
+    }
+
+    /**
+     * Accepts the empty string like Hibernate Validator, which is left to {@link javax.validation.constraints.NotEmpty}
+     */
+    public static boolean isEmail(CharSequence value) {
+        int length = value.length();
+
+        if (length == 0) {
+            return true;
+        }
+
+        if (length > MAX_LENGTH) {
+            return false;
+        }
+
+        int at = length - 1;
+
+        while (at >= 0 && value.charAt(at) != '@') {
+            at--;
+        }
+
+        return at >= 0 && isLocalPart(value, 0, at) && isDomain(value, at + 1, length);
+    }
+
+    private static boolean isLocalPart(CharSequence value, int start, int end) {
+        if (end == start || end - start > MAX_LOCAL_PART_LENGTH) {
+            return false;
+        }
+
+        int index = start;
+
+        while (true) {
+            index = value.charAt(index) == '"' ? skipQuoted(value, index, end) : skipAtoms(value, index, end);
+
+            if (index < 0) {
+                return false;
+            }
+
+            if (index == end) {
+                return true;
+            }
+
+            if (value.charAt(index) != '.' || ++index == end) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the index after the atoms starting at the specified index, or -1 if there are none
+     */
+    private static int skipAtoms(CharSequence value, int index, int end) {
+        int start = index;
+
+        while (index < end && isAtom(value, index, end)) {
+            index++;
+        }
+
+        return index > start ? index : -1;
+    }
+
+    /**
+     * @return the index after the quoted string starting at the specified index, or -1 if it is empty or malformed
+     */
+    private static int skipQuoted(CharSequence value, int index, int end) {
+        int start = ++index;
+
+        while (index < end) {
+            char c = value.charAt(index);
+
+            if (c == '"') {
+                return index > start ? index + 1 : -1;
+            }
+
+            if (c == '\\') {
+                if (index + 1 == end || value.charAt(index + 1) != '\\' && value.charAt(index + 1) != '"') {
+                    return -1;
+                }
+
+                index += 2;
+            } else if (c < QUOTED.length ? QUOTED[c] : !isSurrogatePair(value, index, end)) {
+                index++;
+            } else {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isDomain(CharSequence value, int start, int end) {
+        if (end == start || end - start > MAX_DOMAIN_LENGTH || value.charAt(end - 1) == '.') {
+            return false;
+        }
+
+        boolean isWellFormed = value.charAt(start) == '['
+                ? isAddressLiteral(value, start, end)
+                : isHostName(value, start, end);
+
+        if (!isWellFormed) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) >= ATOM.length) {
+                return fitsAfterIdnConversion(value.subSequence(start, end).toString());
+            }
+        }
+
+        return haveLabelsValidLength(value, start, end);
+    }
+
+    /**
+     * Labels of atoms, neither starting nor ending with a hyphen
+     */
+    private static boolean isHostName(CharSequence value, int start, int end) {
+        int labelStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i == end || value.charAt(i) == '.') {
+                if (i == labelStart || value.charAt(labelStart) == '-' || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+
+                labelStart = i + 1;
+            } else if (!isAtom(value, i, end)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * {@code [IPv4]} with one to three digits per part, or {@code [IPv6:IPv6]}
+     */
+    private static boolean isAddressLiteral(CharSequence value, int start, int end) {
+        if (end - start < 2 || value.charAt(end - 1) != ']') {
+            return false;
+        }
+
+        if (startsWithIgnoreCase(value, start + 1, end - 1, "IPv6:")) {
+            return isIpv6(value, start + 6, end - 1);
+        }
+
+        return isIpv4(value, start + 1, end - 1, false);
+    }
+
+    /**
+     * @param strict whether parts of three digits must be within 100 and 255
+     */
+    private static boolean isIpv4(CharSequence value, int start, int end, boolean strict) {
+        int index = start;
+
+        for (int part = 1; ; part++) {
+            int partStart = index;
+            int number = 0;
+
+            while (index < end && index - partStart < 3 && isDigit(value.charAt(index))) {
+                number = number * 10 + value.charAt(index++) - '0';
+            }
+
+            if (index == partStart || strict && index - partStart == 3 && (number < 100 || number > 255)) {
+                return false;
+            }
+
+            if (part == 4) {
+                return index == end;
+            }
+
+            if (index == end || value.charAt(index++) != '.') {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Full, compressed, IPv4 mapped or embedding, and link-local addresses with zone index
+     */
+    private static boolean isIpv6(CharSequence value, int start, int end) {
+        int percent = indexOf(value, start, end, '%');
+
+        if (percent >= 0) {
+            return isLinkLocalIpv6(value, start, percent, end);
+        }
+
+        int dot = indexOf(value, start, end, '.');
+
+        if (dot < 0) {
+            return isHexIpv6(value, start, end);
+        }
+
+        int colon = dot;
+
+        while (colon >= start && value.charAt(colon) != ':') {
+            colon--;
+        }
+
+        return colon >= start && isIpv4(value, colon + 1, end, true) && isIpv4Prefix(value, start, colon + 1);
+    }
+
+    /**
+     * Eight groups, or fewer with {@code ::} in between
+     */
+    private static boolean isHexIpv6(CharSequence value, int start, int end) {
+        int compressed = indexOfDoubleColon(value, start, end);
+
+        if (compressed < 0) {
+            return countHexGroups(value, start, end) == 8;
+        }
+
+        int left = countHexGroups(value, start, compressed);
+        int right = countHexGroups(value, compressed + 2, end);
+
+        return left >= 0 && right >= 0 && left + right <= 7;
+    }
+
+    /**
+     * {@code ::}, {@code ::ffff:} or {@code ::ffff:0:}, or one to four groups followed by {@code ::}
+     */
+    private static boolean isIpv4Prefix(CharSequence value, int start, int end) {
+        int compressed = indexOfDoubleColon(value, start, end);
+
+        if (compressed < 0) {
+            return false;
+        }
+
+        if (compressed > start) {
+            int groups = countHexGroups(value, start, compressed);
+            return groups >= 1 && groups <= 4 && compressed + 2 == end;
+        }
+
+        int index = start + 2;
+
+        if (index == end) {
+            return true;
+        }
+
+        if (!startsWithIgnoreCase(value, index, end, "ffff:")) {
+            return false;
+        }
+
+        index += 5;
+
+        if (index == end) {
+            return true;
+        }
+
+        int zeros = 0;
+
+        while (index < end && value.charAt(index) == '0') {
+            index++;
+            zeros++;
+        }
+
+        return zeros >= 1 && zeros <= 4 && index == end - 1 && value.charAt(index) == ':';
+    }
+
+    /**
+     * {@code fe80:} followed by up to four groups of up to four digits, each preceded by a colon, and a zone index
+     */
+    private static boolean isLinkLocalIpv6(CharSequence value, int start, int percent, int end) {
+        if (!startsWithIgnoreCase(value, start, percent, "fe80:")) {
+            return false;
+        }
+
+        int index = start + 5;
+
+        for (int groups = 1; index < percent; groups++) {
+            if (groups > 4 || value.charAt(index++) != ':') {
+                return false;
+            }
+
+            int groupStart = index;
+
+            while (index < percent && index - groupStart < 4 && isHexDigit(value.charAt(index))) {
+                index++;
+            }
+        }
+
+        if (percent + 1 == end) {
+            return false;
+        }
+
+        for (int i = percent + 1; i < end; i++) {
+            char c = value.charAt(i);
+
+            if (!isDigit(c) && (c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of colon separated groups of one to four hex digits, or -1 if malformed
+     */
+    private static int countHexGroups(CharSequence value, int start, int end) {
+        if (start == end) {
+            return 0;
+        }
+
+        int index = start;
+
+        for (int groups = 1; ; groups++) {
+            int groupStart = index;
+
+            while (index < end && index - groupStart < 4 && isHexDigit(value.charAt(index))) {
+                index++;
+            }
+
+            if (index == groupStart) {
+                return -1;
+            }
+
+            if (index == end) {
+                return groups;
+            }
+
+            if (value.charAt(index++) != ':' || index == end) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Applies the label length limit of {@link IDN#toASCII(String)} to ASCII domains without converting them
+     */
+    private static boolean haveLabelsValidLength(CharSequence value, int start, int end) {
+        int labelStart = start;
+
+        for (int i = start; i <= end; i++) {
+            if (i == end || value.charAt(i) == '.') {
+                if (i == labelStart || i - labelStart > MAX_LABEL_LENGTH) {
+                    return false;
+                }
+
+                labelStart = i + 1;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean fitsAfterIdnConversion(String domain) {
+        try {
+            return IDN.toASCII(domain).length() <= MAX_DOMAIN_LENGTH;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Non-ASCII characters are atoms, except for supplementary code points
+     */
+    private static boolean isAtom(CharSequence value, int index, int end) {
+        char c = value.charAt(index);
+        return c < ATOM.length ? ATOM[c] : !isSurrogatePair(value, index, end);
+    }
+
+    private static boolean isSurrogatePair(CharSequence value, int index, int end) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < end
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return isDigit(c) || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    /**
+     * Ignores the case of ASCII letters only, like {@link java.util.regex.Pattern#CASE_INSENSITIVE}
+     */
+    private static boolean startsWithIgnoreCase(CharSequence value, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (toLowerCase(value.charAt(start + i)) != toLowerCase(prefix.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 'a' - 'A') : c;
+    }
+
+    private static int indexOf(CharSequence value, int start, int end, char c) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int indexOfDoubleColon(CharSequence value, int start, int end) {
+        for (int i = start; i + 1 < end; i++) {
+            if (value.charAt(i) == ':' && value.charAt(i + 1) == ':') {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean[] asciiTable(String characters) {
+        boolean[] table = new boolean[128];
+
+        for (char c : characters.toCharArray()) {
+            table[c] = true;
+        }
+
+        return table;
+    }
+}
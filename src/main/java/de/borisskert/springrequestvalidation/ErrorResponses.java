@@ -0,0 +1,102 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Error responses with JSON bodies serialized once at startup. Returning them from a handler writes the body directly,
+ * instead of {@code sendError} and a second dispatch to the error page, which renders the body again per request.
+ * <p>
+ * The bodies carry the status, reason phrase and message like Spring Boot's error page, without timestamp and path.
+ * Only the body of an invalid user is serialized per response, as it lists the errors of the user.
+ */
+public final class ErrorResponses {
+
+    public static final ResponseEntity<byte[]> INVALID_PARAMETER = of(HttpStatus.BAD_REQUEST, "Invalid parameter");
+    public static final ResponseEntity<byte[]> ID_EXISTS = of(HttpStatus.CONFLICT, "Id already exists");
+    public static final ResponseEntity<byte[]> USERNAME_EXISTS = of(HttpStatus.CONFLICT, "Username already exists");
+    public static final ResponseEntity<byte[]> EMAIL_EXISTS = of(HttpStatus.CONFLICT, "Email already exists");
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the user has been saved
+     */
+    public static ResponseEntity<byte[]> of(WriteResult result) {
+        switch (result.getStatus()) {
+            case INVALID:
+                return invalidUser(result.getErrors());
+            case ID_EXISTS:
+                return ID_EXISTS;
+            case USERNAME_EXISTS:
+                return USERNAME_EXISTS;
+            case EMAIL_EXISTS:
+                return EMAIL_EXISTS;
+            default:
+                throw new IllegalArgumentException("No error: " + result);
+        }
+    }
+
+    /**
+     * @param errors the constraint violations as "property: message" strings, like in the batch results
+     */
+    public static ResponseEntity<byte[]> invalidUser(List<String> errors) {
+        StringBuilder body = new StringBuilder(fieldsOf(HttpStatus.BAD_REQUEST, "Invalid user"))
+                .append(",\"errors\":[");
+
+        for (int index = 0; index < errors.size(); index++) {
+            if (index > 0) {
+                body.append(',');
+            }
+
+            appendString(body, errors.get(index));
+        }
+
+        return response(HttpStatus.BAD_REQUEST, body.append("]}").toString());
+    }
+
+    private static ResponseEntity<byte[]> of(HttpStatus status, String message) {
+        return response(status, fieldsOf(status, message) + "}");
+    }
+
+    private static ResponseEntity<byte[]> response(HttpStatus status, String body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the JSON object without its closing brace
+     */
+    private static String fieldsOf(HttpStatus status, String message) {
+        return "{\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message + "\"";
+    }
+
+    /**
+     * Escapes quotes, backslashes and control characters, as messages may contain the rejected values
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+
+        json.append('"');
+    }
+}
@@ -0,0 +1,232 @@
+package de.borisskert.springrequestvalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only write-ahead log of saved users in the format of {@link UserRecords}.
+ * <p>
+ * Appends are queued and written by a single writer thread: everything queued while the previous group was
+ * being written goes into the next group, which is written at once and made durable with a single fsync
+ * (group commit). So concurrent writers share one fsync instead of waiting for one each.
+ * <p>
+ * A torn or corrupt record at the end of the file (e.g. after a crash while writing) ends the replay and
+ * is truncated, so the log can be appended to again.
+ */
+public class FileUserJournal implements UserJournal, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileUserJournal.class);
+
+    private static final int MAX_GROUP_SIZE = 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    /**
+     * Appends check {@link #closed} and enqueue under the read lock, so they don't wait for each other. Closing takes
+     * the write lock, so no append is enqueued after the writer has seen the journal closed.
+     */
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    /**
+     * The end of the records written and forced so far
+     */
+    private volatile long written;
+
+    public FileUserJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+
+        channel.position(channel.size());
+        written = channel.position();
+
+        writer = new Thread(this::writeGroups, "user-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public CompletableFuture<Void> append(UserId id, User user) {
+        PendingAppend append = new PendingAppend(UserRecords.encode(id, user));
+        closing.readLock().lock();
+
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Journal '" + path + "' is closed"));
+            }
+
+            queue.add(append);
+        } finally {
+            closing.readLock().unlock();
+        }
+
+        return append.written;
+    }
+
+    /**
+     * Reads the log memory-mapped (see {@link UserRecords#decodeAll}), has to be called before anything is appended
+     */
+    @Override
+    public void replay(BiConsumer<UserId, User> consumer) {
+        replay(0, consumer);
+    }
+
+    /**
+     * Reads the log from the specified position on, see {@link #replay(BiConsumer)}. A position behind the end of the
+     * log (e.g. of a journal replaced since) replays the whole log.
+     */
+    @Override
+    public synchronized void replay(long from, BiConsumer<UserId, User> consumer) {
+        try {
+            long size = channel.size();
+
+            if (from > size) {
+                LOG.warn("Replaying journal '{}' from the start, it is shorter than {} bytes", path, from);
+                from = 0;
+            }
+
+            long position = UserRecords.decodeAll(channel, from, consumer);
+
+            if (position < size) {
+                LOG.warn("Truncating torn or corrupt tail of journal '{}' at {} of {} bytes", path, position, size);
+                channel.truncate(position);
+                channel.position(position);
+                written = position;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay journal '" + path + "'", e);
+        }
+    }
+
+    @Override
+    public long position() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closing.writeLock().lock();
+
+        try {
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<PendingAppend> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        unwritten.forEach(append -> append.written.completeExceptionally(
+                new IllegalStateException("Journal '" + path + "' is closed")
+        ));
+
+        channel.close();
+    }
+
+    private void writeGroups() {
+        List<PendingAppend> group = new ArrayList<>(MAX_GROUP_SIZE);
+
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP_SIZE - 1);
+
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        ByteBuffer[] records = new ByteBuffer[group.size()];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = group.get(i).record;
+        }
+
+        long start = -1;
+
+        try {
+            start = channel.position();
+
+            while (records[records.length - 1].hasRemaining()) {
+                channel.write(records);
+            }
+
+            channel.force(false);
+            written = channel.position();
+        } catch (IOException e) {
+            group.forEach(append -> append.written.completeExceptionally(e));
+            discardFrom(start);
+            return;
+        }
+
+        group.forEach(append -> append.written.complete(null));
+    }
+
+    /**
+     * Removes a partly written group, so later groups are not appended behind a corrupt record
+     */
+    private void discardFrom(long position) {
+        if (position < 0) {
+            return;
+        }
+
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            LOG.error("Cannot discard partly written records of journal '{}'", path, e);
+        }
+    }
+
+    private static class PendingAppend {
+        private final ByteBuffer record;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingAppend(ByteBuffer record) {
+            this.record = record;
+        }
+    }
+}
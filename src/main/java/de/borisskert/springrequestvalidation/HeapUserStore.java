@@ -0,0 +1,192 @@
+package de.borisskert.springrequestvalidation;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the {@link User} objects as they are, in a {@link UserIdMap} keyed by the primitive halves of the ids.
+ * Costs about 360 bytes per user (see README).
+ */
+public class HeapUserStore implements UserStore {
+
+    private static final UserId[] NO_IDS = new UserId[0];
+
+    /**
+     * Holds the username in {@link #usersByUsername} while the email and the id of the user are claimed, so the user
+     * can't be found by its username before it is stored
+     */
+    private static final User CLAIMED = new User("", "", LocalDate.MIN);
+
+    private final UserIdMap<User> users = new UserIdMap<>();
+
+    /**
+     * Username index kept in step with {@link #users}, so lookups by username don't need to scan all users. Usernames
+     * being claimed map to {@link #CLAIMED}.
+     */
+    private final ConcurrentMap<String, User> usersByUsername = new ConcurrentHashMap<>();
+
+    /**
+     * The ids by username in order, for searches by the beginning of usernames. Keyed by the usernames of the stored
+     * users themselves, so it keeps no strings of its own.
+     */
+    private final ConcurrentNavigableMap<String, UserId> idsByUsername = new ConcurrentSkipListMap<>();
+
+    /**
+     * The ids by normalized email (see {@link UserRepository#normalize(String)}), keyed by the emails of the stored users
+     * themselves if they are normalized already. Emails are shared by a single user mostly, so the ids are kept in
+     * arrays which are replaced on change.
+     */
+    private final ConcurrentHashMap<String, UserId[]> idsByEmail = new ConcurrentHashMap<>();
+
+    @Override
+    public User get(UserId id) {
+        return users.get(id);
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        User user = usersByUsername.get(username);
+        return user != CLAIMED ? user : null;
+    }
+
+    @Override
+    public Map<UserId, User> findByUsernamePrefix(String prefix, int limit) {
+        Map<UserId, User> found = new LinkedHashMap<>();
+
+        for (Map.Entry<String, UserId> entry : idsByUsername.tailMap(prefix).entrySet()) {
+            if (found.size() >= limit || !entry.getKey().startsWith(prefix)) {
+                break;
+            }
+
+            User user = users.get(entry.getValue());
+
+            // removed again since found in the index
+            if (user != null && user.getUsername().equals(entry.getKey())) {
+                found.put(entry.getValue(), user);
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public Map<UserId, User> findByEmail(String email) {
+        String normalized = UserRepository.normalize(email);
+        UserId[] emailIds = idsByEmail.getOrDefault(normalized, NO_IDS);
+        Map<UserId, User> found = new LinkedHashMap<>(emailIds.length * 2);
+
+        for (UserId id : emailIds) {
+            User user = users.get(id);
+
+            // claimed but not stored yet, or removed again since found in the index
+            if (user != null && UserRepository.normalize(user.getEmail()).equals(normalized)) {
+                found.put(id, user);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * The username and the email are claimed first and released again if the id turns out to be taken, so no lock is
+     * needed and concurrent puts with the same username or unique email can't both succeed. The user replaces the
+     * claim of its username only once it is stored by its id.
+     */
+    @Override
+    public SaveResult putIfAbsent(UserId id, User user, boolean uniqueEmail) {
+        String username = user.getUsername();
+
+        if (usersByUsername.putIfAbsent(username, CLAIMED) != null) {
+            return users.containsKey(id) ? SaveResult.ID_EXISTS : SaveResult.USERNAME_EXISTS;
+        }
+
+        String email = UserRepository.normalize(user.getEmail());
+
+        if (!claimEmail(email, id, uniqueEmail)) {
+            usersByUsername.remove(username, CLAIMED);
+            return users.containsKey(id) ? SaveResult.ID_EXISTS : SaveResult.EMAIL_EXISTS;
+        }
+
+        if (users.putIfAbsent(id, user) != null) {
+            releaseEmail(email, id);
+            usersByUsername.remove(username, CLAIMED);
+            return SaveResult.ID_EXISTS;
+        }
+
+        usersByUsername.put(username, user);
+        idsByUsername.put(username, id);
+
+        return SaveResult.SAVED;
+    }
+
+    @Override
+    public void remove(UserId id, User user) {
+        idsByUsername.remove(user.getUsername(), id);
+        users.remove(id, user);
+        usersByUsername.remove(user.getUsername(), user);
+        releaseEmail(UserRepository.normalize(user.getEmail()), id);
+    }
+
+    @Override
+    public void forEach(BiConsumer<UserId, User> action) {
+        users.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return users.size();
+    }
+
+    /**
+     * @return false if the email has to be unique and is claimed by another id
+     */
+    private boolean claimEmail(String email, UserId id, boolean unique) {
+        boolean[] claimed = new boolean[1];
+
+        idsByEmail.compute(email, (key, emailIds) -> {
+            if (emailIds != null && unique) {
+                return emailIds;
+            }
+
+            claimed[0] = true;
+
+            if (emailIds == null) {
+                return new UserId[]{id};
+            }
+
+            UserId[] added = Arrays.copyOf(emailIds, emailIds.length + 1);
+            added[emailIds.length] = id;
+
+            return added;
+        });
+
+        return claimed[0];
+    }
+
+    private void releaseEmail(String email, UserId id) {
+        idsByEmail.computeIfPresent(email, (key, emailIds) -> {
+            for (int index = 0; index < emailIds.length; index++) {
+                if (emailIds[index] == id) {
+                    if (emailIds.length == 1) {
+                        return null;
+                    }
+
+                    UserId[] removed = new UserId[emailIds.length - 1];
+                    System.arraycopy(emailIds, 0, removed, 0, index);
+                    System.arraycopy(emailIds, index + 1, removed, index, removed.length - index);
+
+                    return removed;
+                }
+            }
+
+            return emailIds;
+        });
+    }
+}
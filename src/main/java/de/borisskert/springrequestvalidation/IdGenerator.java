@@ -0,0 +1,12 @@
+package de.borisskert.springrequestvalidation;
+
+/**
+ * Generates the ids of created users, which have to be valid {@link Uuid}s
+ *
+ * @see RandomIdGenerator
+ * @see TimeOrderedIdGenerator
+ */
+public interface IdGenerator {
+
+    UserId newId();
+}
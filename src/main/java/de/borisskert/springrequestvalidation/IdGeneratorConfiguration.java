@@ -0,0 +1,25 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the {@link IdGenerator} by the property {@code users.id-generator}: {@code random} (default) or
+ * {@code time-ordered}
+ */
+@Configuration
+public class IdGeneratorConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "users.id-generator", havingValue = "random", matchIfMissing = true)
+    public RandomIdGenerator randomIdGenerator() {
+        return new RandomIdGenerator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "users.id-generator", havingValue = "time-ordered")
+    public TimeOrderedIdGenerator timeOrderedIdGenerator() {
+        return new TimeOrderedIdGenerator();
+    }
+}
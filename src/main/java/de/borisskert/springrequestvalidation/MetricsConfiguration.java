@@ -0,0 +1,84 @@
+package de.borisskert.springrequestvalidation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.validation.Validator;
+
+/**
+ * Registers the {@link UserMetrics}, times the {@link UsersEndpoint} requests and gauges the number of stored users as
+ * {@code users_stored}. Spring Boot's own {@code http_server_requests} timer is disabled in the
+ * {@code application.properties}, so requests are timed only once.
+ * <p>
+ * Every request is traced by phase as well, keeping the last {@code users.traces.capacity} (default 1024) requests in
+ * the {@link RequestTraces}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public UserMetrics userMetrics(MeterRegistry registry) {
+        return new UserMetrics(registry);
+    }
+
+    /**
+     * Static, as the meter registry binds it while being created
+     */
+    @Bean
+    public static MeterBinder userRepositorySize(UserRepository repository) {
+        return registry -> Gauge.builder("users.stored", repository, UserRepository::size)
+                .description("Number of users in the repository")
+                .register(registry);
+    }
+
+    @Bean
+    public RequestTraces requestTraces(@Value("${users.traces.capacity:1024}") int capacity) {
+        return new RequestTraces(capacity);
+    }
+
+    @Bean
+    public RequestTracesEndpoint requestTracesEndpoint(RequestTraces traces) {
+        return new RequestTracesEndpoint(traces);
+    }
+
+    /**
+     * Replaces the auto-configured method validation by one tracing its validation, configured alike
+     */
+    @Bean
+    public static MethodValidationPostProcessor methodValidationPostProcessor(Environment environment, @Lazy Validator validator) {
+        MethodValidationPostProcessor processor = new MethodValidationPostProcessor() {
+            @Override
+            protected Advice createMethodValidationAdvice(Validator validator) {
+                MethodInterceptor validation = (MethodInterceptor) super.createMethodValidationAdvice(validator);
+                return (MethodInterceptor) invocation -> RequestTrace.current().validate(validation, invocation);
+            }
+        };
+
+        processor.setProxyTargetClass(environment.getProperty("spring.aop.proxy-target-class", Boolean.class, true));
+        processor.setValidator(validator);
+
+        return processor;
+    }
+
+    @Bean
+    public WebMvcConfigurer requestTiming(UserMetrics metrics, RequestTraces traces) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestTimingInterceptor(metrics, traces))
+                        .addPathPatterns("/api/users", "/api/users/**");
+            }
+        };
+    }
+}
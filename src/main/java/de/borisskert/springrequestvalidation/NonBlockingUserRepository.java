@@ -0,0 +1,31 @@
+package de.borisskert.springrequestvalidation;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@link UserRepository} as {@link ReactiveUserRepository}: the stores answer from memory without blocking and
+ * saves complete with the journal's future instead of joining it.
+ */
+public class NonBlockingUserRepository implements ReactiveUserRepository {
+
+    private final UserRepository repository;
+
+    public NonBlockingUserRepository(UserRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<User> getById(UserId id) {
+        return Mono.justOrEmpty(repository.getById(id));
+    }
+
+    @Override
+    public Mono<User> findByUsername(String username) {
+        return Mono.justOrEmpty(repository.findByUsername(username));
+    }
+
+    @Override
+    public Mono<SaveResult> save(UserId id, User user) {
+        return Mono.fromFuture(() -> repository.saveAsync(id, user));
+    }
+}
@@ -0,0 +1,39 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Enables the persistence of users:
+ * <ul>
+ *     <li>{@code users.journal.path}: journals every saved user</li>
+ *     <li>{@code users.snapshot.path}: writes snapshots every {@code users.snapshot.interval} and on shutdown</li>
+ * </ul>
+ * Both are restored on startup by the {@link UserRepository}: the snapshot, then the journal from the position the
+ * snapshot was taken at.
+ */
+@Configuration
+public class PersistenceConfiguration {
+
+    @Bean
+    @ConditionalOnProperty("users.journal.path")
+    public FileUserJournal fileUserJournal(@Value("${users.journal.path}") Path path) throws IOException {
+        return new FileUserJournal(path);
+    }
+
+    @Bean
+    @ConditionalOnProperty("users.snapshot.path")
+    public UserSnapshotter userSnapshotter(
+            UserRepository repository,
+            @Value("${users.snapshot.path}") Path path,
+            @Value("${users.snapshot.interval:0s}") Duration interval
+    ) {
+        return new UserSnapshotter(repository, path, interval);
+    }
+}
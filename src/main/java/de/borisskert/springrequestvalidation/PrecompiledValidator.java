@@ -0,0 +1,485 @@
+package de.borisskert.springrequestvalidation;
+
+import de.borisskert.springrequestvalidation.PrecompiledViolation.NamedNode;
+import de.borisskert.springrequestvalidation.PrecompiledViolation.NodePath;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.*;
+import javax.validation.constraints.*;
+import javax.validation.executable.ExecutableValidator;
+import javax.validation.groups.Default;
+import javax.validation.metadata.*;
+import javax.validation.metadata.MethodType;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Bean Validation without the reflective traversal of Hibernate Validator, for the classes it has been compiled for.
+ * Their property and method parameter constraints are read from the metadata once and turned into plain checks with
+ * interpolated messages, so validating a valid object allocates nothing. The reported violations have the same paths,
+ * messages and descriptors as those of Hibernate Validator.
+ * <p>
+ * Constraints are compiled only for the default group, messages are interpolated in the default locale. Validating
+ * other classes or groups is delegated to the reflective validator. Custom constraint validators must not use their
+ * {@link ConstraintValidatorContext}, which is null.
+ */
+public class PrecompiledValidator extends SpringValidatorAdapter {
+
+    private final ValidatorFactory factory;
+    private final ExecutableValidator reflectiveExecutables;
+
+    private final Map<Class<?>, CompiledBean> beans = new HashMap<>();
+    private final Map<Method, CompiledMethod> methods = new HashMap<>();
+
+    private final ExecutableValidator executables = new PrecompiledExecutables();
+
+    /**
+     * @param classes the classes to compile the property and method parameter constraints for
+     * @throws IllegalArgumentException if a constraint of the classes cannot be compiled
+     */
+    public PrecompiledValidator(ValidatorFactory factory, Class<?>... classes) {
+        super(factory.getValidator());
+
+        this.factory = factory;
+        this.reflectiveExecutables = factory.getValidator().forExecutables();
+
+        for (Class<?> type : classes) {
+            BeanDescriptor descriptor = factory.getValidator().getConstraintsForClass(type);
+
+            if (descriptor.isBeanConstrained()) {
+                beans.put(type, compileBean(type, descriptor));
+            }
+        }
+
+        for (Class<?> type : classes) {
+            BeanDescriptor descriptor = factory.getValidator().getConstraintsForClass(type);
+
+            for (MethodDescriptor method : descriptor.getConstrainedMethods(MethodType.NON_GETTER, MethodType.GETTER)) {
+                methods.put(findMethod(type, method), compileMethod(method));
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+        CompiledBean bean = object == null ? null : beans.get(object.getClass());
+
+        if (bean == null || !isDefaultGroup(groups)) {
+            return super.validate(object, groups);
+        }
+
+        return (Set<ConstraintViolation<T>>) (Set<?>) bean.validate(object, NodePath.of(), object, null);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        processConstraintViolations(validate(target), errors);
+    }
+
+    /**
+     * Validates precompiled unless the hints name validation groups other than the default one.
+     * Spring MVC passes a null hint for {@link javax.validation.Valid}.
+     */
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (isDefaultGroup(validationHints)) {
+            validate(target, errors);
+        } else {
+            super.validate(target, errors, validationHints);
+        }
+    }
+
+    @Override
+    public ExecutableValidator forExecutables() {
+        return executables;
+    }
+
+    /**
+     * Returns this validator instead of the reflective one it delegates to, since method validation unwraps it
+     */
+    @Override
+    public <T> T unwrap(Class<T> type) {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+
+        return super.unwrap(type);
+    }
+
+    /**
+     * Closes the factory of the reflective validator
+     */
+    public void close() {
+        factory.close();
+    }
+
+    /**
+     * @param groups validation groups or hints, of which only classes are groups like in {@link SpringValidatorAdapter}
+     */
+    private static boolean isDefaultGroup(Object[] groups) {
+        for (Object group : groups) {
+            if (group instanceof Class && group != Default.class) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private CompiledBean compileBean(Class<?> type, BeanDescriptor descriptor) {
+        if (descriptor.hasConstraints()) {
+            throw new IllegalArgumentException("Cannot precompile class level constraints of " + type);
+        }
+
+        List<CompiledProperty> properties = new ArrayList<>();
+
+        for (PropertyDescriptor property : descriptor.getConstrainedProperties()) {
+            String element = type.getSimpleName() + "." + property.getPropertyName();
+
+            if (property.isCascaded()) {
+                throw new IllegalArgumentException("Cannot precompile cascaded property " + element);
+            }
+
+            properties.add(new CompiledProperty(
+                    property.getPropertyName(),
+                    findGetter(type, property.getPropertyName()),
+                    compileConstraints(property.getConstraintDescriptors(), property.getElementClass(), element)
+            ));
+        }
+
+        return new CompiledBean(properties.toArray(new CompiledProperty[0]));
+    }
+
+    private CompiledMethod compileMethod(MethodDescriptor method) {
+        String element = method.getName() + "()";
+
+        if (method.getCrossParameterDescriptor().hasConstraints() || method.getReturnValueDescriptor().hasConstraints()
+                || method.getReturnValueDescriptor().isCascaded()) {
+            throw new IllegalArgumentException("Cannot precompile cross parameter or return value constraints of " + element);
+        }
+
+        NodePath methodPath = NodePath.of(new NamedNode(method.getName(), ElementKind.METHOD));
+        List<CompiledParameter> parameters = new ArrayList<>();
+
+        for (ParameterDescriptor parameter : method.getParameterDescriptors()) {
+            if (!parameter.hasConstraints() && !parameter.isCascaded()) {
+                continue;
+            }
+
+            CompiledBean cascaded = null;
+
+            if (parameter.isCascaded()) {
+                cascaded = beans.get(parameter.getElementClass());
+
+                if (cascaded == null) {
+                    throw new IllegalArgumentException("Cannot precompile cascaded parameter " + parameter.getName()
+                            + " of " + element + " without compiling " + parameter.getElementClass());
+                }
+            }
+
+            parameters.add(new CompiledParameter(
+                    parameter.getIndex(),
+                    methodPath.append(new NamedNode(parameter.getName(), ElementKind.PARAMETER)),
+                    compileConstraints(parameter.getConstraintDescriptors(), parameter.getElementClass(), element),
+                    cascaded
+            ));
+        }
+
+        return new CompiledMethod(parameters.toArray(new CompiledParameter[0]));
+    }
+
+    private CompiledConstraint[] compileConstraints(Set<ConstraintDescriptor<?>> descriptors, Class<?> type, String element) {
+        List<CompiledConstraint> constraints = new ArrayList<>();
+
+        for (ConstraintDescriptor<?> descriptor : descriptors) {
+            if (!descriptor.getGroups().equals(Set.of(Default.class)) || !descriptor.getComposingConstraints().isEmpty()
+                    || descriptor.getMessageTemplate().contains("${")) {
+                throw new IllegalArgumentException("Cannot precompile " + descriptor.getAnnotation() + " of " + element);
+            }
+
+            constraints.add(new CompiledConstraint(descriptor, interpolate(descriptor), compileCheck(descriptor, type, element)));
+        }
+
+        return constraints.toArray(new CompiledConstraint[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Object> compileCheck(ConstraintDescriptor<?> descriptor, Class<?> type, String element) {
+        Annotation annotation = descriptor.getAnnotation();
+        List<? extends Class<? extends ConstraintValidator<?, ?>>> validatorClasses = descriptor.getConstraintValidatorClasses();
+
+        if (validatorClasses.size() == 1) {
+            ConstraintValidator<Annotation, Object> validator = (ConstraintValidator<Annotation, Object>)
+                    factory.getConstraintValidatorFactory().getInstance(validatorClasses.get(0));
+            validator.initialize(annotation);
+
+            return value -> validator.isValid(value, null);
+        }
+
+        boolean isText = CharSequence.class.isAssignableFrom(type);
+
+        if (annotation instanceof NotNull) {
+            return Objects::nonNull;
+        }
+
+        if (annotation instanceof NotEmpty && isText) {
+            return value -> value != null && ((CharSequence) value).length() > 0;
+        }
+
+        if (annotation instanceof Size && isText) {
+            int min = ((Size) annotation).min();
+            int max = ((Size) annotation).max();
+
+            return value -> value == null || ((CharSequence) value).length() >= min && ((CharSequence) value).length() <= max;
+        }
+
+        if (annotation instanceof Size && Collection.class.isAssignableFrom(type)) {
+            int min = ((Size) annotation).min();
+            int max = ((Size) annotation).max();
+
+            return value -> value == null || ((Collection<?>) value).size() >= min && ((Collection<?>) value).size() <= max;
+        }
+
+        if (annotation instanceof Min && isInteger(type)) {
+            long min = ((Min) annotation).value();
+            return value -> value == null || ((Number) value).longValue() >= min;
+        }
+
+        if (annotation instanceof Max && isInteger(type)) {
+            long max = ((Max) annotation).value();
+            return value -> value == null || ((Number) value).longValue() <= max;
+        }
+
+        if (annotation instanceof Email && isText) {
+            EmailValidator validator = new EmailValidator();
+            validator.initialize((Email) annotation);
+
+            return value -> validator.isValid((CharSequence) value, null);
+        }
+
+        if (annotation instanceof Past && type == LocalDate.class) {
+            Clock clock = factory.getClockProvider().getClock();
+            return value -> value == null || ((LocalDate) value).isBefore(LocalDate.now(clock));
+        }
+
+        throw new IllegalArgumentException("Cannot precompile " + annotation + " of " + element);
+    }
+
+    private static boolean isInteger(Class<?> type) {
+        return type == int.class || type == Integer.class || type == long.class || type == Long.class;
+    }
+
+    private String interpolate(ConstraintDescriptor<?> descriptor) {
+        return factory.getMessageInterpolator().interpolate(descriptor.getMessageTemplate(), new MessageInterpolator.Context() {
+            @Override
+            public ConstraintDescriptor<?> getConstraintDescriptor() {
+                return descriptor;
+            }
+
+            @Override
+            public Object getValidatedValue() {
+                return null;
+            }
+
+            @Override
+            public <T> T unwrap(Class<T> type) {
+                throw new ValidationException("Cannot unwrap " + type);
+            }
+        });
+    }
+
+    private static MethodHandle findGetter(Class<?> type, String propertyName) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            String capitalized = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+
+            for (String getter : List.of("get" + capitalized, "is" + capitalized)) {
+                for (Method method : type.getMethods()) {
+                    if (method.getName().equals(getter) && method.getParameterCount() == 0) {
+                        return lookup.unreflect(method).asType(java.lang.invoke.MethodType.methodType(Object.class, Object.class));
+                    }
+                }
+            }
+
+            return lookup.unreflectGetter(type.getDeclaredField(propertyName))
+                    .asType(java.lang.invoke.MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access property " + propertyName + " of " + type, e);
+        }
+    }
+
+    private static Method findMethod(Class<?> type, MethodDescriptor descriptor) {
+        Class<?>[] parameterTypes = descriptor.getParameterDescriptors()
+                .stream()
+                .map(ParameterDescriptor::getElementClass)
+                .toArray(Class<?>[]::new);
+
+        try {
+            return type.getMethod(descriptor.getName(), parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Cannot precompile non-public method " + descriptor.getName() + " of " + type, e);
+        }
+    }
+
+    private static final class CompiledConstraint {
+        private final ConstraintDescriptor<?> descriptor;
+        private final String message;
+        private final Predicate<Object> check;
+
+        private CompiledConstraint(ConstraintDescriptor<?> descriptor, String message, Predicate<Object> check) {
+            this.descriptor = descriptor;
+            this.message = message;
+            this.check = check;
+        }
+    }
+
+    private static final class CompiledProperty {
+        private final NamedNode node;
+        private final MethodHandle getter;
+        private final CompiledConstraint[] constraints;
+
+        private CompiledProperty(String name, MethodHandle getter, CompiledConstraint[] constraints) {
+            this.node = new NamedNode(name, ElementKind.PROPERTY);
+            this.getter = getter;
+            this.constraints = constraints;
+        }
+
+        private Object valueOf(Object bean) {
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ValidationException("Cannot read property " + node + " of " + bean.getClass(), e);
+            }
+        }
+    }
+
+    private static final class CompiledBean {
+        private final CompiledProperty[] properties;
+
+        private CompiledBean(CompiledProperty[] properties) {
+            this.properties = properties;
+        }
+
+        /**
+         * @param parentPath the path to the bean, empty if it is the root bean
+         */
+        private <T> Set<ConstraintViolation<T>> validate(Object bean, NodePath parentPath, T rootBean, Object[] parameters) {
+            Set<ConstraintViolation<T>> violations = Collections.emptySet();
+
+            for (CompiledProperty property : properties) {
+                Object value = property.valueOf(bean);
+
+                for (CompiledConstraint constraint : property.constraints) {
+                    if (!constraint.check.test(value)) {
+                        if (violations.isEmpty()) {
+                            violations = new HashSet<>();
+                        }
+
+                        violations.add(new PrecompiledViolation<>(constraint.message, constraint.descriptor, rootBean,
+                                bean, parameters, value, parentPath.append(property.node)));
+                    }
+                }
+            }
+
+            return violations;
+        }
+    }
+
+    private static final class CompiledParameter {
+        private final int index;
+        private final NodePath path;
+        private final CompiledConstraint[] constraints;
+        private final CompiledBean cascaded;
+
+        private CompiledParameter(int index, NodePath path, CompiledConstraint[] constraints, CompiledBean cascaded) {
+            this.index = index;
+            this.path = path;
+            this.constraints = constraints;
+            this.cascaded = cascaded;
+        }
+    }
+
+    private static final class CompiledMethod {
+        private final CompiledParameter[] parameters;
+
+        private CompiledMethod(CompiledParameter[] parameters) {
+            this.parameters = parameters;
+        }
+
+        private <T> Set<ConstraintViolation<T>> validate(T object, Object[] arguments) {
+            Set<ConstraintViolation<T>> violations = Collections.emptySet();
+
+            for (CompiledParameter parameter : parameters) {
+                Object value = arguments[parameter.index];
+
+                for (CompiledConstraint constraint : parameter.constraints) {
+                    if (!constraint.check.test(value)) {
+                        if (violations.isEmpty()) {
+                            violations = new HashSet<>();
+                        }
+
+                        violations.add(new PrecompiledViolation<>(constraint.message, constraint.descriptor, object,
+                                object, arguments, value, parameter.path));
+                    }
+                }
+
+                if (parameter.cascaded != null && value != null) {
+                    Set<ConstraintViolation<T>> cascadedViolations = parameter.cascaded.validate(value, parameter.path, object, arguments);
+
+                    if (!cascadedViolations.isEmpty()) {
+                        if (violations.isEmpty()) {
+                            violations = new HashSet<>();
+                        }
+
+                        violations.addAll(cascadedViolations);
+                    }
+                }
+            }
+
+            return violations;
+        }
+    }
+
+    private class PrecompiledExecutables implements ExecutableValidator {
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateParameters(T object, Method method, Object[] parameterValues, Class<?>... groups) {
+            CompiledMethod compiled = methods.get(method);
+
+            if (compiled == null || !isDefaultGroup(groups)) {
+                return reflectiveExecutables.validateParameters(object, method, parameterValues, groups);
+            }
+
+            return compiled.validate(object, parameterValues);
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateReturnValue(T object, Method method, Object returnValue, Class<?>... groups) {
+            if (methods.containsKey(method) && isDefaultGroup(groups)) {
+                return Collections.emptySet();
+            }
+
+            return reflectiveExecutables.validateReturnValue(object, method, returnValue, groups);
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateConstructorParameters(Constructor<? extends T> constructor, Object[] parameterValues, Class<?>... groups) {
+            return reflectiveExecutables.validateConstructorParameters(constructor, parameterValues, groups);
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateConstructorReturnValue(Constructor<? extends T> constructor, T createdObject, Class<?>... groups) {
+            return reflectiveExecutables.validateConstructorReturnValue(constructor, createdObject, groups);
+        }
+    }
+}
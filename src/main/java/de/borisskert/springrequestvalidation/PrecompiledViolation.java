@@ -0,0 +1,192 @@
+package de.borisskert.springrequestvalidation;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.ValidationException;
+import javax.validation.metadata.ConstraintDescriptor;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ConstraintViolation} reported by the {@link PrecompiledValidator}, with the same content as the one Hibernate
+ * Validator would report
+ */
+final class PrecompiledViolation<T> implements ConstraintViolation<T> {
+
+    private final String message;
+    private final ConstraintDescriptor<?> descriptor;
+    private final T rootBean;
+    private final Object leafBean;
+    private final Object[] executableParameters;
+    private final Object invalidValue;
+    private final Path propertyPath;
+
+    PrecompiledViolation(
+            String message,
+            ConstraintDescriptor<?> descriptor,
+            T rootBean,
+            Object leafBean,
+            Object[] executableParameters,
+            Object invalidValue,
+            Path propertyPath
+    ) {
+        this.message = message;
+        this.descriptor = descriptor;
+        this.rootBean = rootBean;
+        this.leafBean = leafBean;
+        this.executableParameters = executableParameters;
+        this.invalidValue = invalidValue;
+        this.propertyPath = propertyPath;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String getMessageTemplate() {
+        return descriptor.getMessageTemplate();
+    }
+
+    @Override
+    public T getRootBean() {
+        return rootBean;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<T> getRootBeanClass() {
+        return (Class<T>) rootBean.getClass();
+    }
+
+    @Override
+    public Object getLeafBean() {
+        return leafBean;
+    }
+
+    @Override
+    public Object[] getExecutableParameters() {
+        return executableParameters;
+    }
+
+    @Override
+    public Object getExecutableReturnValue() {
+        return null;
+    }
+
+    @Override
+    public Path getPropertyPath() {
+        return propertyPath;
+    }
+
+    @Override
+    public Object getInvalidValue() {
+        return invalidValue;
+    }
+
+    @Override
+    public ConstraintDescriptor<?> getConstraintDescriptor() {
+        return descriptor;
+    }
+
+    @Override
+    public <U> U unwrap(Class<U> type) {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+
+        throw new ValidationException("Cannot unwrap " + type);
+    }
+
+    @Override
+    public String toString() {
+        return "PrecompiledViolation{propertyPath=" + propertyPath + ", message='" + message + "'}";
+    }
+
+    /**
+     * Path of named nodes as built by Hibernate Validator for properties and method parameters
+     */
+    static final class NodePath implements Path {
+        private final List<Node> nodes;
+
+        private NodePath(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        static NodePath of(Node... nodes) {
+            return new NodePath(Arrays.asList(nodes));
+        }
+
+        NodePath append(Node node) {
+            Node[] appended = nodes.toArray(new Node[nodes.size() + 1]);
+            appended[nodes.size()] = node;
+
+            return new NodePath(Arrays.asList(appended));
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            return nodes.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return nodes.stream()
+                    .map(Node::getName)
+                    .collect(Collectors.joining("."));
+        }
+    }
+
+    static final class NamedNode implements Path.Node {
+        private final String name;
+        private final ElementKind kind;
+
+        NamedNode(String name, ElementKind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isInIterable() {
+            return false;
+        }
+
+        @Override
+        public Integer getIndex() {
+            return null;
+        }
+
+        @Override
+        public Object getKey() {
+            return null;
+        }
+
+        @Override
+        public ElementKind getKind() {
+            return kind;
+        }
+
+        @Override
+        public <N extends Path.Node> N as(Class<N> nodeType) {
+            if (nodeType.isInstance(this)) {
+                return nodeType.cast(this);
+            }
+
+            throw new ClassCastException("Node of kind " + kind + " is no " + nodeType.getSimpleName());
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.UUID;
+
+/**
+ * Random version 4 UUIDs from the shared {@link java.security.SecureRandom} of {@link UUID#randomUUID()}
+ */
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public UserId newId() {
+        return UserId.of(UUID.randomUUID());
+    }
+}
@@ -0,0 +1,39 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serves the users by the {@link ReactiveUsersEndpoint} on Netty with {@code spring.main.web-application-type=reactive}.
+ * Without, the {@link UsersEndpoint} serves them on Tomcat.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+
+    /**
+     * Netty instead of Tomcat, which Spring Boot prefers for reactive applications if present
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(UserRepository repository) {
+        return new NonBlockingUserRepository(repository);
+    }
+
+    @Bean
+    public ReactiveUserService reactiveUserService(
+            ReactiveUserRepository repository,
+            UserService service,
+            UserImporter importer,
+            IdGenerator idGenerator,
+            UserMetrics metrics
+    ) {
+        return new ReactiveUserService(repository, service, importer, idGenerator, metrics);
+    }
+}
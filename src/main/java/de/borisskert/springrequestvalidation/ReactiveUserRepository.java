@@ -0,0 +1,21 @@
+package de.borisskert.springrequestvalidation;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the users, for the {@link ReactiveUsersEndpoint}
+ *
+ * @see NonBlockingUserRepository
+ */
+public interface ReactiveUserRepository {
+
+    Mono<User> getById(UserId id);
+
+    Mono<User> findByUsername(String username);
+
+    /**
+     * Claims the id and the username together and emits the result after the user has been journaled, without
+     * blocking while journaling
+     */
+    Mono<SaveResult> save(UserId id, User user);
+}
@@ -0,0 +1,155 @@
+package de.borisskert.springrequestvalidation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The {@link UserService} for the {@link ReactiveUsersEndpoint}. Single users are validated like by the
+ * {@link UserService} and read and saved through the {@link ReactiveUserRepository}. Batches and imports are saved by
+ * the {@link UserService}, which waits for the journal, so they run on the bounded elastic scheduler. So do the reads
+ * of many users, which take store locks and walk the indexes for up to a thousand users, keeping the event loop free.
+ */
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository repository;
+    private final UserService service;
+    private final UserImporter importer;
+    private final IdGenerator idGenerator;
+    private final UserMetrics metrics;
+
+    public ReactiveUserService(
+            ReactiveUserRepository repository,
+            UserService service,
+            UserImporter importer,
+            IdGenerator idGenerator,
+            UserMetrics metrics
+    ) {
+        this.repository = repository;
+        this.service = service;
+        this.importer = importer;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+    }
+
+    public Mono<User> getUserById(UserId id) {
+        return repository.getById(id);
+    }
+
+    public Mono<User> findByUsername(String username) {
+        return repository.findByUsername(username);
+    }
+
+    /**
+     * @see UserService#lookup(List)
+     */
+    public Mono<UserLookup> lookup(List<UserId> ids) {
+        return offload(() -> service.lookup(ids));
+    }
+
+    /**
+     * @see UserService#stats()
+     */
+    public Mono<UserStats> stats() {
+        return offload(service::stats);
+    }
+
+    /**
+     * @see UserService#findByEmail(String)
+     */
+    public Mono<List<UserPage.Item>> findByEmail(String email) {
+        return offload(() -> service.findByEmail(email));
+    }
+
+    /**
+     * @see UserService#list(UserId, int)
+     */
+    public Mono<UserPage> list(UserId after, int limit) {
+        return offload(() -> service.list(after, limit));
+    }
+
+    /**
+     * @see UserService#findByDateOfBirth(LocalDate, LocalDate, DateOfBirthKey, int)
+     */
+    public Mono<UserPage> findByDateOfBirth(LocalDate bornAfter, LocalDate bornBefore, DateOfBirthKey after, int limit) {
+        return offload(() -> service.findByDateOfBirth(bornAfter, bornBefore, after, limit));
+    }
+
+    /**
+     * @see UserService#findByUsernamePrefix(String, int)
+     */
+    public Mono<List<UserPage.Item>> findByUsernamePrefix(String prefix, int limit) {
+        return offload(() -> service.findByUsernamePrefix(prefix, limit));
+    }
+
+    /**
+     * Validates the user and saves it with a new id
+     */
+    public Mono<WriteResult> create(User user) {
+        List<String> errors = service.validate(user);
+
+        if (!errors.isEmpty()) {
+            return Mono.just(WriteResult.invalid(errors));
+        }
+
+        return save(idGenerator.newId(), user);
+    }
+
+    /**
+     * Validates the user and saves it with the specified id
+     */
+    public Mono<WriteResult> insert(UserId id, User user) {
+        List<String> errors = service.validate(user);
+
+        if (!errors.isEmpty()) {
+            return Mono.just(WriteResult.invalid(errors));
+        }
+
+        return save(id, user);
+    }
+
+    /**
+     * @see UserService#createAll(List)
+     */
+    public Mono<List<BatchItemResult>> createAll(List<User> users) {
+        return Mono.fromCallable(() -> service.createAll(users))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Imports the users like the {@link UserImporter}, a batch at a time, and emits the results of each batch as
+     * newline-delimited JSON. The lines are split by WebFlux, which buffers up to 256 KB of a line and fails the
+     * request on longer ones.
+     */
+    public Flux<byte[]> importUsers(Flux<String> lines) {
+        AtomicInteger firstIndex = new AtomicInteger();
+
+        return lines.filter(line -> !line.isBlank())
+                .buffer(importer.getBatchSize())
+                .concatMap(batch -> {
+                    int index = firstIndex.getAndAdd(batch.size());
+
+                    return Mono.fromCallable(() -> importer.importBatch(index, batch))
+                            .subscribeOn(Schedulers.boundedElastic());
+                })
+                .map(importer::toLines);
+    }
+
+    private static <T> Mono<T> offload(Supplier<T> read) {
+        return Mono.fromSupplier(read)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<WriteResult> save(UserId id, User user) {
+        return repository.save(id, user)
+                .map(result -> {
+                    metrics.conflicted(result);
+                    return WriteResult.of(id, result);
+                });
+    }
+}
@@ -0,0 +1,169 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The {@link UsersEndpoint} on WebFlux, with the same routes, validation and responses, for
+ * {@code spring.main.web-application-type=reactive}
+ */
+@RestController
+@RequestMapping("/api/users")
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUsersEndpoint {
+
+    private final ReactiveUserService service;
+    private final UserJsonCache jsonCache;
+    private final int maxBatchSize;
+
+    @Autowired
+    public ReactiveUsersEndpoint(
+            ReactiveUserService service,
+            UserJsonCache jsonCache,
+            @Value("${users.batch.max-size:50000}") int maxBatchSize
+    ) {
+        this.service = service;
+        this.jsonCache = jsonCache;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getUserById(@PathVariable @Uuid String id, ServerWebExchange exchange) {
+        UserId userId = UserId.parse(id);
+
+        return service.getUserById(userId)
+                .map(user -> {
+                    String eTag = UserETag.of(user);
+
+                    return exchange.checkNotModified(eTag)
+                            ? notModified()
+                            : ok(eTag, jsonCache.byId(userId, user));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(params = {"username", "!email"})
+    public Mono<ResponseEntity<byte[]>> findByUsername(@RequestParam @Size(min = 6, max = 12) String username, ServerWebExchange exchange) {
+        return service.findByUsername(username)
+                .map(user -> {
+                    String eTag = UserETag.of(user);
+
+                    return exchange.checkNotModified(eTag)
+                            ? notModified()
+                            : ok(eTag, jsonCache.byUsername(username, user));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(params = {"limit", "!username", "!usernamePrefix", "!email", "!bornAfter", "!bornBefore"})
+    public Mono<UserPage> list(
+            @RequestParam(required = false) @Uuid String after,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.list(after == null ? null : UserId.parse(after), limit);
+    }
+
+    @GetMapping(params = {"email", "!username"})
+    public Mono<List<UserPage.Item>> findByEmail(@RequestParam @NotEmpty @Email String email) {
+        return service.findByEmail(email);
+    }
+
+    @GetMapping(params = {"usernamePrefix", "limit"})
+    public Mono<List<UserPage.Item>> findByUsernamePrefix(
+            @RequestParam @Size(min = 1, max = 12) String usernamePrefix,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.findByUsernamePrefix(usernamePrefix, limit);
+    }
+
+    @GetMapping(params = {"bornAfter", "bornBefore", "limit"})
+    public Mono<UserPage> findByDateOfBirth(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornAfter,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornBefore,
+            @RequestParam(required = false) @DateOfBirthCursor String after,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.findByDateOfBirth(bornAfter, bornBefore, after == null ? null : DateOfBirthKey.parse(after), limit);
+    }
+
+    @GetMapping("/stats")
+    public Mono<UserStats> stats() {
+        return service.stats();
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<byte[]>> create(@RequestBody User user) {
+        return service.create(user)
+                .map(result -> result.isSaved()
+                        ? ResponseEntity.created(URI.create("/api/users/" + result.getId())).build()
+                        : ErrorResponses.of(result));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<?>> createAll(@RequestBody List<User> users) {
+        if (users.size() > maxBatchSize) {
+            return Mono.just(ErrorResponses.INVALID_PARAMETER);
+        }
+
+        return service.createAll(users).map(ResponseEntity::ok);
+    }
+
+    @PostMapping(path = "/import", consumes = UserImporter.NDJSON, produces = UserImporter.NDJSON)
+    public Flux<byte[]> importUsers(@RequestBody Flux<String> lines) {
+        return service.importUsers(lines);
+    }
+
+    @PostMapping("/lookup")
+    public Mono<ResponseEntity<?>> lookup(@RequestBody @Size(min = 1, max = 1000) List<String> ids) {
+        List<UserId> userIds = UserLookup.parseIds(ids);
+
+        if (userIds == null) {
+            return Mono.just(ErrorResponses.INVALID_PARAMETER);
+        }
+
+        return service.lookup(userIds).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> insert(@PathVariable @Uuid String id, @RequestBody User user) {
+        return service.insert(UserId.parse(id), user)
+                .map(result -> result.isSaved()
+                        ? ResponseEntity.ok().<byte[]>build()
+                        : ErrorResponses.of(result));
+    }
+
+    private static ResponseEntity<byte[]> ok(String eTag, UserJsonCache.Json json) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .body(json.getBytes());
+    }
+
+    /**
+     * The status and the ETag have been set by {@code checkNotModified} already
+     */
+    private static ResponseEntity<byte[]> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package de.borisskert.springrequestvalidation;
+
+/**
+ * The phases of a {@link UsersEndpoint} request traced by {@link RequestTrace}. Time outside of all phases, like
+ * dispatching and writing the response, is reported as other time.
+ */
+public enum RequestPhase {
+
+    /**
+     * Reading the JSON request body into a {@link User}
+     */
+    BINDING,
+
+    /**
+     * Validating the {@link User} in the {@link UserService}
+     */
+    BEAN_VALIDATION,
+
+    /**
+     * Validating ids and usernames by the method validation proxy of the {@link UsersEndpoint}
+     */
+    METHOD_VALIDATION,
+
+    /**
+     * The {@link UserService} without validation and repository
+     */
+    SERVICE,
+
+    /**
+     * The {@link UserRepository}, including the journal
+     */
+    REPOSITORY
+}
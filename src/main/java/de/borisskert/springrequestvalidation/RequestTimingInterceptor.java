@@ -0,0 +1,51 @@
+package de.borisskert.springrequestvalidation;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces {@link UsersEndpoint} requests from the handler being chosen until the response has been written, including
+ * binding, validation and error handling. Records their latency into the {@link UserMetrics} and their phases into
+ * the {@link RequestTraces}.
+ */
+public class RequestTimingInterceptor implements HandlerInterceptor {
+
+    private final UserMetrics metrics;
+    private final RequestTraces traces;
+
+    public RequestTimingInterceptor(UserMetrics metrics, RequestTraces traces) {
+        this.metrics = metrics;
+        this.traces = traces;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            int endpoint = traces.endpointIndex(((HandlerMethod) handler).getMethod());
+
+            if (endpoint >= 0) {
+                RequestTrace.current().begin(endpoint);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestTrace trace = RequestTrace.current();
+
+        if (trace.isActive()) {
+            trace.end();
+
+            Timer timer = metrics.requestTimer(((HandlerMethod) handler).getMethod());
+            timer.record(trace.totalNanos(), TimeUnit.NANOSECONDS);
+            traces.record(trace, response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.borisskert.springrequestvalidation;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * The phase timing of the current {@link UsersEndpoint} request. Every thread reuses its own trace, so tracing a
+ * request allocates nothing.
+ * <p>
+ * The phases nest: entering a phase pauses the enclosing one, so each phase is charged its own time only. Outside of
+ * a traced request, entering and exiting phases does nothing.
+ */
+public final class RequestTrace {
+
+    private static final int MAX_DEPTH = 8;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = ThreadLocal.withInitial(RequestTrace::new);
+
+    private final long[] phaseNanos = new long[RequestPhase.values().length];
+    private final int[] open = new int[MAX_DEPTH];
+    private final ValidatedInvocation validated = new ValidatedInvocation();
+
+    private boolean active;
+    private int endpoint;
+    private long start;
+    private long totalNanos;
+    private long mark;
+    private int depth;
+
+    private RequestTrace() {
+    }
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void enter(RequestPhase phase) {
+        CURRENT.get().push(phase.ordinal());
+    }
+
+    public static void exit() {
+        CURRENT.get().pop();
+    }
+
+    void begin(int endpoint) {
+        this.endpoint = endpoint;
+        Arrays.fill(phaseNanos, 0L);
+        depth = 0;
+        start = System.nanoTime();
+        mark = start;
+        active = true;
+    }
+
+    /**
+     * Charges the time up to now to the innermost phase still open, which has been left by an exception
+     */
+    void end() {
+        long now = System.nanoTime();
+        charge(now);
+
+        totalNanos = now - start;
+        depth = 0;
+        active = false;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    int endpoint() {
+        return endpoint;
+    }
+
+    long totalNanos() {
+        return totalNanos;
+    }
+
+    long phaseNanos(RequestPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Invokes the method validation, charging the validation to {@link RequestPhase#METHOD_VALIDATION} but not the
+     * validated method itself
+     */
+    Object validate(MethodInterceptor validation, MethodInvocation invocation) throws Throwable {
+        if (!active || validated.invocation != null) {
+            return validation.invoke(invocation);
+        }
+
+        validated.invocation = invocation;
+        push(RequestPhase.METHOD_VALIDATION.ordinal());
+
+        try {
+            return validation.invoke(validated);
+        } finally {
+            pop();
+            validated.invocation = null;
+        }
+    }
+
+    private void push(int phase) {
+        if (!active) {
+            return;
+        }
+
+        charge(System.nanoTime());
+
+        if (depth < MAX_DEPTH) {
+            open[depth] = phase;
+        }
+
+        depth++;
+    }
+
+    private void pop() {
+        if (!active || depth == 0) {
+            return;
+        }
+
+        charge(System.nanoTime());
+        depth--;
+    }
+
+    private void charge(long now) {
+        if (depth > 0 && depth <= MAX_DEPTH) {
+            phaseNanos[open[depth - 1]] += now - mark;
+        }
+
+        mark = now;
+    }
+
+    /**
+     * Pauses the method validation while the validated method runs
+     */
+    private class ValidatedInvocation implements MethodInvocation {
+
+        private MethodInvocation invocation;
+
+        @Override
+        public Object proceed() throws Throwable {
+            pop();
+
+            try {
+                return invocation.proceed();
+            } finally {
+                push(RequestPhase.METHOD_VALIDATION.ordinal());
+            }
+        }
+
+        @Override
+        public Method getMethod() {
+            return invocation.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return invocation.getArguments();
+        }
+
+        @Override
+        public Object getThis() {
+            return invocation.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return invocation.getStaticPart();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.borisskert.springrequestvalidation;
+
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent {@link RequestTrace}s in a fixed-size ring of preallocated slots, so recording neither locks nor
+ * allocates.
+ * <p>
+ * Each slot has a version, the sequence number of its trace plus one. A writer claims the slot by swapping its version
+ * for {@link #WRITING} and publishes the new version after copying the trace. Readers copy a slot and drop it if its
+ * version changed meanwhile. A writer lapping another one on the same slot drops its trace instead of waiting.
+ */
+public class RequestTraces {
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private static final int ENDPOINT = 0;
+    private static final int STATUS = 1;
+    private static final int COMPLETED_AT = 2;
+    private static final int TOTAL = 3;
+    private static final int FIRST_PHASE = 4;
+    private static final int SLOT_SIZE = FIRST_PHASE + PHASES.length;
+
+    private static final long EMPTY = 0L;
+    private static final long WRITING = -1L;
+
+    private final List<Method> endpoints = UsersEndpoint.handlerMethods();
+    private final Map<Method, Integer> endpointIndexes = new HashMap<>();
+
+    private final int mask;
+    private final long[] slots;
+    private final AtomicLongArray versions;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity the number of traces kept, rounded up to a power of two
+     */
+    public RequestTraces(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        mask = size - 1;
+        slots = new long[size * SLOT_SIZE];
+        versions = new AtomicLongArray(size);
+
+        for (int index = 0; index < endpoints.size(); index++) {
+            endpointIndexes.put(endpoints.get(index), index);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the index of the specified {@link UsersEndpoint} method, or -1 for other methods
+     */
+    int endpointIndex(Method method) {
+        return endpointIndexes.getOrDefault(method, -1);
+    }
+
+    /**
+     * Copies the ended trace into the oldest slot
+     */
+    void record(RequestTrace trace, int status) {
+        long number = sequence.getAndIncrement();
+        int slot = (int) number & mask;
+
+        long version = versions.get(slot);
+        if (version == WRITING || !versions.compareAndSet(slot, version, WRITING)) {
+            return;
+        }
+
+        VarHandle.storeStoreFence();
+
+        int offset = slot * SLOT_SIZE;
+        slots[offset + ENDPOINT] = trace.endpoint();
+        slots[offset + STATUS] = status;
+        slots[offset + COMPLETED_AT] = System.currentTimeMillis();
+        slots[offset + TOTAL] = trace.totalNanos();
+
+        for (RequestPhase phase : PHASES) {
+            slots[offset + FIRST_PHASE + phase.ordinal()] = trace.phaseNanos(phase);
+        }
+
+        versions.set(slot, number + 1);
+    }
+
+    /**
+     * @return up to {@code limit} of the recorded requests, slowest first
+     */
+    public List<TracedRequest> slowest(int limit) {
+        List<TracedRequest> requests = new ArrayList<>(capacity());
+        long[] slot = new long[SLOT_SIZE];
+
+        for (int index = 0; index < capacity(); index++) {
+            long version = versions.get(index);
+            if (version == EMPTY || version == WRITING) {
+                continue;
+            }
+
+            System.arraycopy(slots, index * SLOT_SIZE, slot, 0, SLOT_SIZE);
+            VarHandle.acquireFence();
+
+            if (versions.get(index) == version) {
+                requests.add(toTracedRequest(slot));
+            }
+        }
+
+        requests.sort(Comparator.comparingLong(TracedRequest::totalNanos).reversed());
+
+        return requests.subList(0, Math.min(limit, requests.size()));
+    }
+
+    private TracedRequest toTracedRequest(long[] slot) {
+        long[] phaseNanos = new long[PHASES.length];
+        System.arraycopy(slot, FIRST_PHASE, phaseNanos, 0, PHASES.length);
+
+        return new TracedRequest(
+                endpoints.get((int) slot[ENDPOINT]).getName(),
+                (int) slot[STATUS],
+                Instant.ofEpochMilli(slot[COMPLETED_AT]),
+                slot[TOTAL],
+                phaseNanos
+        );
+    }
+}
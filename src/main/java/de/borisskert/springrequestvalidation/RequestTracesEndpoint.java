@@ -0,0 +1,31 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.util.List;
+
+/**
+ * Lists the slowest of the recent {@link UsersEndpoint} requests with their time by phase at
+ * {@code /actuator/requesttraces?limit=N}. A negative limit is answered with 400 Bad Request.
+ */
+@Endpoint(id = "requesttraces")
+@Validated
+public class RequestTracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RequestTraces traces;
+
+    public RequestTracesEndpoint(RequestTraces traces) {
+        this.traces = traces;
+    }
+
+    @ReadOperation
+    public List<TracedRequest> slowest(@Nullable @Min(0) Integer limit) {
+        return traces.slowest(limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
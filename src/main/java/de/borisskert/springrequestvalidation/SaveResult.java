@@ -0,0 +1,14 @@
+package de.borisskert.springrequestvalidation;
+
+/**
+ * Outcome of {@link UserRepository#save(UserId, User)}
+ */
+public enum SaveResult {
+    SAVED,
+    ID_EXISTS,
+    USERNAME_EXISTS,
+    /**
+     * Only if emails have to be unique, see {@code users.unique-emails}
+     */
+    EMAIL_EXISTS
+}
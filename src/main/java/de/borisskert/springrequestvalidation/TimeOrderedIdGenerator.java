@@ -0,0 +1,24 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 7 UUIDs (RFC 9562): 48 bits of Unix epoch milliseconds followed by 74 random bits, so ids created later
+ * sort after earlier ones (at millisecond precision). The random bits are taken from the {@link ThreadLocalRandom}
+ * to avoid contention on a shared random generator.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+
+    @Override
+    public UserId newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long msb = (System.currentTimeMillis() << 16) | VERSION | (random.nextLong() & 0x0FFFL);
+        long lsb = VARIANT | (random.nextLong() & 0x3FFFFFFFFFFFFFFFL);
+
+        return new UserId(msb, lsb);
+    }
+}
@@ -0,0 +1,78 @@
+package de.borisskert.springrequestvalidation;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A request recorded by the {@link RequestTraces}, with its time in microseconds by {@link RequestPhase} and the time
+ * outside of all phases as {@code OTHER}
+ */
+public class TracedRequest {
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final String endpoint;
+    private final int status;
+    private final Instant completedAt;
+    private final long totalNanos;
+    private final long[] phaseNanos;
+
+    TracedRequest(String endpoint, int status, Instant completedAt, long totalNanos, long[] phaseNanos) {
+        this.endpoint = endpoint;
+        this.status = status;
+        this.completedAt = completedAt;
+        this.totalNanos = totalNanos;
+        this.phaseNanos = phaseNanos;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public double getTotalMicros() {
+        return toMicros(totalNanos);
+    }
+
+    public Map<String, Double> getPhaseMicros() {
+        Map<String, Double> phaseMicros = new LinkedHashMap<>();
+        long other = totalNanos;
+
+        for (RequestPhase phase : PHASES) {
+            phaseMicros.put(phase.name(), toMicros(phaseNanos[phase.ordinal()]));
+            other -= phaseNanos[phase.ordinal()];
+        }
+
+        phaseMicros.put("OTHER", toMicros(other));
+
+        return phaseMicros;
+    }
+
+    long totalNanos() {
+        return totalNanos;
+    }
+
+    long phaseNanos(RequestPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Rounded to a tenth of a microsecond
+     */
+    private static double toMicros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    @Override
+    public String toString() {
+        return endpoint + " " + status + " " + getTotalMicros() + "us " + getPhaseMicros();
+    }
+}
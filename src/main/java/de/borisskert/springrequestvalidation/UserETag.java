@@ -0,0 +1,71 @@
+package de.borisskert.springrequestvalidation;
+
+/**
+ * Strong entity tags of users: a 64 bit hash of the username, email and date of birth. Users never change once saved,
+ * so the tag is computed from their content on every read instead of being stored, and is the same across restarts
+ * and {@link UserStore}s.
+ */
+public final class UserETag {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private UserETag() {
+    }
+
+    /**
+     * @return 16 hex digits in double quotes, as sent in the {@code ETag} header
+     */
+    public static String of(User user) {
+        long hash = FNV_OFFSET_BASIS;
+
+        hash = hash(hash, user.getUsername());
+        hash = hash(hash, user.getEmail());
+        hash = hash(hash, user.getDateOfBirth().toEpochDay());
+
+        return toETag(mix(hash));
+    }
+
+    /**
+     * FNV-1a over the characters, terminated by a zero so adjacent strings cannot shift into each other
+     */
+    private static long hash(long hash, String value) {
+        for (int index = 0; index < value.length(); index++) {
+            hash = (hash ^ value.charAt(index)) * FNV_PRIME;
+        }
+
+        return hash * FNV_PRIME;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading every input bit over all bits of the tag
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static String toETag(long hash) {
+        char[] chars = new char[18];
+        chars[0] = '"';
+        chars[17] = '"';
+
+        for (int index = 16; index > 0; index--) {
+            chars[index] = HEX_DIGITS[(int) hash & 0xf];
+            hash >>>= 4;
+        }
+
+        return new String(chars);
+    }
+}
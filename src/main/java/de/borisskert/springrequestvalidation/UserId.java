@@ -0,0 +1,157 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Id of a user: a UUID kept as its two 64 bit halves. Parsed once from the {@link Uuid} validated path variables,
+ * so lookups hash and compare two longs instead of a string of 36 characters.
+ * <p>
+ * Ids are ordered like their lowercase string representations.
+ */
+public final class UserId implements Comparable<UserId> {
+
+    private static final int LENGTH = 36;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Values of the hex digits by character, -1 for all other ASCII characters. Being negative, -1 spreads over all
+     * bits of an int when shifted and or-ed with other values.
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[Character.toLowerCase(HEX_DIGITS[i])] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(HEX_DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    public UserId(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    public static UserId of(UUID uuid) {
+        return new UserId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @param value a UUID in the canonical form of 8-4-4-4-12 hex digits
+     * @throws IllegalArgumentException if the value is no UUID in canonical form
+     */
+    public static UserId parse(CharSequence value) {
+        if (value.length() != LENGTH
+                || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            throw new IllegalArgumentException("'" + value + "' is no UUID");
+        }
+
+        long group1 = parse4Digits(value, 0);
+        long group2 = parse4Digits(value, 4);
+        long group3 = parse4Digits(value, 9);
+        long group4 = parse4Digits(value, 14);
+        long group5 = parse4Digits(value, 19);
+        long group6 = parse4Digits(value, 24);
+        long group7 = parse4Digits(value, 28);
+        long group8 = parse4Digits(value, 32);
+
+        if ((group1 | group2 | group3 | group4 | group5 | group6 | group7 | group8) < 0) {
+            throw new IllegalArgumentException("'" + value + "' is no UUID");
+        }
+
+        return new UserId(
+                group1 << 48 | group2 << 32 | group3 << 16 | group4,
+                group5 << 48 | group6 << 32 | group7 << 16 | group8
+        );
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    @Override
+    public int compareTo(UserId other) {
+        int comparison = Long.compareUnsigned(mostSignificantBits, other.mostSignificantBits);
+
+        if (comparison != 0) {
+            return comparison;
+        }
+
+        return Long.compareUnsigned(leastSignificantBits, other.leastSignificantBits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserId userId = (UserId) o;
+        return mostSignificantBits == userId.mostSignificantBits &&
+                leastSignificantBits == userId.leastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash(mostSignificantBits, leastSignificantBits);
+    }
+
+    /**
+     * Hash of an id given by its halves, spreading the bits well enough for open addressing
+     */
+    static int hash(long mostSignificantBits, long leastSignificantBits) {
+        long hash = (mostSignificantBits ^ Long.rotateLeft(leastSignificantBits, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return the lowercase canonical form
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[LENGTH];
+
+        formatHex(mostSignificantBits >>> 32, chars, 0, 8);
+        chars[8] = '-';
+        formatHex(mostSignificantBits >>> 16, chars, 9, 13);
+        chars[13] = '-';
+        formatHex(mostSignificantBits, chars, 14, 18);
+        chars[18] = '-';
+        formatHex(leastSignificantBits >>> 48, chars, 19, 23);
+        chars[23] = '-';
+        formatHex(leastSignificantBits, chars, 24, 36);
+
+        return new String(chars);
+    }
+
+    /**
+     * @return the value of the four hex digits at the position, negative if any of them is no hex digit
+     */
+    private static int parse4Digits(CharSequence value, int position) {
+        char c1 = value.charAt(position);
+        char c2 = value.charAt(position + 1);
+        char c3 = value.charAt(position + 2);
+        char c4 = value.charAt(position + 3);
+
+        if ((c1 | c2 | c3 | c4) >= HEX_VALUES.length) {
+            return -1;
+        }
+
+        return HEX_VALUES[c1] << 12 | HEX_VALUES[c2] << 8 | HEX_VALUES[c3] << 4 | HEX_VALUES[c4];
+    }
+
+    private static void formatHex(long value, char[] chars, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
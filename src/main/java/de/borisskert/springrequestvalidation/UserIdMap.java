@@ -0,0 +1,282 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent hash map from {@link UserId}s to values, with open addressing on the two primitive halves of the ids.
+ * Entries take two longs and one reference in arrays instead of a node object with a key object.
+ * <p>
+ * The map is striped into segments by hash, each guarded by its own {@link StampedLock}. Lookups read optimistically
+ * without locking and fall back to the read lock only if a write interfered.
+ *
+ * @param <V> type of the values, which must not be null
+ */
+public class UserIdMap<V> {
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public UserIdMap() {
+        segments = new Segment[SEGMENTS];
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    public V get(UserId id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int hash = id.hashCode();
+
+        Segment<V> segment = segmentOf(hash);
+        StampedLock lock = segment.lock;
+
+        long stamp = lock.tryOptimisticRead();
+        V value = segment.find(hash, msb, lsb);
+
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+
+            try {
+                value = segment.find(hash, msb, lsb);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        return value;
+    }
+
+    public boolean containsKey(UserId id) {
+        return get(id) != null;
+    }
+
+    /**
+     * @return the value already mapped to the id, or null if the specified value has been put
+     */
+    public V putIfAbsent(UserId id, V value) {
+        int hash = id.hashCode();
+        Segment<V> segment = segmentOf(hash);
+        long stamp = segment.lock.writeLock();
+
+        try {
+            return segment.putIfAbsent(hash, id.getMostSignificantBits(), id.getLeastSignificantBits(), value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entry only if the id is mapped to a value equal to the specified one
+     */
+    public boolean remove(UserId id, V value) {
+        int hash = id.hashCode();
+        Segment<V> segment = segmentOf(hash);
+        long stamp = segment.lock.writeLock();
+
+        try {
+            return segment.remove(hash, id.getMostSignificantBits(), id.getLeastSignificantBits(), value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Holds the read lock of a segment only while copying its entries, not while calling the action.
+     * Entries put while iterating may or may not be visited.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<UserId, V> action) {
+        for (Segment<V> segment : segments) {
+            long[] msbs;
+            long[] lsbs;
+            Object[] values;
+            int count = 0;
+
+            long stamp = segment.lock.readLock();
+
+            try {
+                msbs = new long[segment.size];
+                lsbs = new long[segment.size];
+                values = new Object[segment.size];
+
+                for (int i = 0; i < segment.values.length; i++) {
+                    if (segment.values[i] != null) {
+                        msbs[count] = segment.keys[2 * i];
+                        lsbs[count] = segment.keys[2 * i + 1];
+                        values[count] = segment.values[i];
+                        count++;
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+
+            for (int i = 0; i < count; i++) {
+                action.accept(new UserId(msbs[i], lsbs[i]), (V) values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+
+        for (Segment<V> segment : segments) {
+            size += segment.size;
+        }
+
+        return size;
+    }
+
+    private Segment<V> segmentOf(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    /**
+     * Hash table with linear probing. Both halves of an id are kept side by side in {@code keys}, so a probe touches
+     * a single cache line; empty slots have a null value. Removal shifts the following entries back instead of
+     * leaving tombstones.
+     */
+    private static class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+
+        private long[] keys = new long[2 * INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        private volatile int size;
+
+        /**
+         * May be called without lock: reads the arrays once, so an interfering write can produce a wrong result
+         * (to be detected by validating the stamp) but no exception or endless loop
+         */
+        @SuppressWarnings("unchecked")
+        private V find(int hash, long msb, long lsb) {
+            long[] keys = this.keys;
+            Object[] values = this.values;
+
+            int length = Math.min(values.length, keys.length / 2);
+            int mask = Integer.highestOneBit(length) - 1;
+
+            for (int probes = 0, index = hash & mask; probes < length; probes++, index = (index + 1) & mask) {
+                Object value = values[index];
+
+                if (value == null) {
+                    return null;
+                }
+
+                if (keys[2 * index] == msb && keys[2 * index + 1] == lsb) {
+                    return (V) value;
+                }
+            }
+
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V putIfAbsent(int hash, long msb, long lsb, V value) {
+            if ((size + 1) * 2 > values.length) {
+                resize();
+            }
+
+            int mask = values.length - 1;
+            int index = hash & mask;
+
+            while (values[index] != null) {
+                if (keys[2 * index] == msb && keys[2 * index + 1] == lsb) {
+                    return (V) values[index];
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            keys[2 * index] = msb;
+            keys[2 * index + 1] = lsb;
+            values[index] = value;
+            size++;
+
+            return null;
+        }
+
+        private boolean remove(int hash, long msb, long lsb, V value) {
+            int mask = values.length - 1;
+            int index = hash & mask;
+
+            while (values[index] != null) {
+                if (keys[2 * index] == msb && keys[2 * index + 1] == lsb) {
+                    if (!values[index].equals(value)) {
+                        return false;
+                    }
+
+                    shiftBack(index);
+                    size--;
+
+                    return true;
+                }
+
+                index = (index + 1) & mask;
+            }
+
+            return false;
+        }
+
+        /**
+         * Fills the removed slot with following entries whose probe sequence passes it
+         */
+        private void shiftBack(int removed) {
+            int mask = values.length - 1;
+            int index = removed;
+
+            while (true) {
+                index = (index + 1) & mask;
+
+                if (values[index] == null) {
+                    values[removed] = null;
+                    return;
+                }
+
+                int home = UserId.hash(keys[2 * index], keys[2 * index + 1]) & mask;
+
+                if (((index - home) & mask) >= ((index - removed) & mask)) {
+                    keys[2 * removed] = keys[2 * index];
+                    keys[2 * removed + 1] = keys[2 * index + 1];
+                    values[removed] = values[index];
+                    removed = index;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+
+            int capacity = oldValues.length * 2;
+            long[] newKeys = new long[2 * capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = UserId.hash(oldKeys[2 * i], oldKeys[2 * i + 1]) & mask;
+
+                    while (newValues[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+
+                    newKeys[2 * index] = oldKeys[2 * i];
+                    newKeys[2 * index + 1] = oldKeys[2 * i + 1];
+                    newValues[index] = oldValues[i];
+                }
+            }
+
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from newline-delimited JSON, one user per line, and writes one {@link BatchItemResult} per line back.
+ * The lines are read in batches: each batch is parsed and validated in parallel and then saved at once, so no more than
+ * one batch is held in memory however large the input is.
+ * <p>
+ * Lines longer than {@code users.import.max-line-length} (default 16384) characters are reported as invalid without
+ * being held in memory as a whole; the import continues with the next line.
+ */
+@Component
+public class UserImporter {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final UserService service;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final ExecutorService validators;
+    private final int batchSize;
+    private final int maxLineLength;
+
+    @Autowired
+    public UserImporter(
+            UserService service,
+            ObjectMapper mapper,
+            @Value("${users.import.threads:0}") int threads,
+            @Value("${users.import.batch-size:1000}") int batchSize,
+            @Value("${users.import.max-line-length:16384}") int maxLineLength
+    ) {
+        this.service = service;
+        this.reader = mapper.readerFor(User.class);
+        this.writer = mapper.writerFor(BatchItemResult.class);
+        this.validators = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Blank lines are skipped and don't count as record.
+     */
+    public void importUsers(InputStream input, OutputStream output) throws IOException {
+        BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8), maxLineLength);
+        List<String> batch = new ArrayList<>(batchSize);
+        int firstIndex = 0;
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            batch.add(line);
+
+            if (batch.size() == batchSize) {
+                write(importBatch(firstIndex, batch), output);
+                firstIndex += batch.size();
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            write(importBatch(firstIndex, batch), output);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validators.shutdown();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Parses and validates the lines in parallel and saves the valid users at once
+     *
+     * @param firstIndex the index to report for the first line
+     */
+    List<BatchItemResult> importBatch(int firstIndex, List<String> lines) {
+        List<ParsedLine> parsedLines = lines.stream()
+                .map(line -> CompletableFuture.supplyAsync(() -> parse(line), validators))
+                .collect(Collectors.toList())
+                .stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        List<User> users = new ArrayList<>(parsedLines.size());
+        List<List<String>> errors = new ArrayList<>(parsedLines.size());
+
+        for (ParsedLine parsedLine : parsedLines) {
+            users.add(parsedLine.user);
+            errors.add(parsedLine.errors);
+        }
+
+        return service.createAll(firstIndex, users, errors);
+    }
+
+    private ParsedLine parse(String line) {
+        if (line.length() > maxLineLength) {
+            return new ParsedLine(null, List.of("user: must not be longer than " + maxLineLength + " characters"));
+        }
+
+        User user;
+
+        try {
+            user = reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return new ParsedLine(null, List.of("user: " + e.getOriginalMessage()));
+        }
+
+        return new ParsedLine(user, service.validate(user));
+    }
+
+    private void write(List<BatchItemResult> results, OutputStream output) throws IOException {
+        output.write(toLines(results));
+        output.flush();
+    }
+
+    /**
+     * @return the results as newline-delimited JSON
+     */
+    byte[] toLines(List<BatchItemResult> results) {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+
+        try {
+            for (BatchItemResult result : results) {
+                writer.writeValue(lines, result);
+                lines.write(NEWLINE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize " + results, e);
+        }
+
+        return lines.toByteArray();
+    }
+
+    /**
+     * Reads lines like a {@link BufferedReader}, but keeps at most {@code maxLength + 1} characters of a line: the rest of
+     * a longer line is skipped up to the next newline, so the line is recognized as too long without being buffered.
+     */
+    static class BoundedLineReader {
+
+        private final Reader reader;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+
+        private int position;
+        private int limit;
+
+        BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return the next line without its line terminator, cut after {@code maxLength + 1} characters, or null at the
+         * end of the input
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            boolean read = false;
+            boolean cut = false;
+
+            while (true) {
+                if (position == limit && !fill()) {
+                    return read ? finish(cut) : null;
+                }
+
+                read = true;
+                int start = position;
+
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+
+                int room = maxLength + 1 - line.length();
+                cut |= position - start > room;
+                line.append(buffer, start, Math.max(0, Math.min(position - start, room)));
+
+                if (position < limit) {
+                    position++;
+                    return finish(cut);
+                }
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int count = reader.read(buffer, 0, buffer.length);
+
+            position = 0;
+            limit = Math.max(count, 0);
+
+            return count > 0;
+        }
+
+        /**
+         * Strips the carriage return of a line terminated by CRLF, unless the line has been cut before its end
+         */
+        private String finish(boolean cut) {
+            int length = line.length();
+
+            if (!cut && length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+
+            return line.toString();
+        }
+    }
+
+    private static class ParsedLine {
+        private final User user;
+        private final List<String> errors;
+
+        private ParsedLine(User user, List<String> errors) {
+            this.user = user;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Makes saved users durable, see {@link FileUserJournal}
+ */
+public interface UserJournal {
+
+    /**
+     * Keeps nothing, used when no persistence is configured
+     */
+    UserJournal NONE = new UserJournal() {
+        private final CompletableFuture<Void> appended = CompletableFuture.completedFuture(null);
+
+        @Override
+        public CompletableFuture<Void> append(UserId id, User user) {
+            return appended;
+        }
+
+        @Override
+        public void replay(BiConsumer<UserId, User> consumer) {
+        }
+    };
+
+    /**
+     * @return a future completing as soon as the user is durable
+     */
+    CompletableFuture<Void> append(UserId id, User user);
+
+    /**
+     * Passes all users appended so far to the consumer, in order of appending
+     */
+    void replay(BiConsumer<UserId, User> consumer);
+
+    /**
+     * Passes the users appended from the specified {@link #position()} on to the consumer, in order of appending.
+     * Replays all users by default.
+     */
+    default void replay(long from, BiConsumer<UserId, User> consumer) {
+        replay(consumer);
+    }
+
+    /**
+     * @return the position behind the users durable so far, from which on a later replay continues
+     */
+    default long position() {
+        return 0;
+    }
+}
@@ -0,0 +1,98 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The users serialized to JSON on their first read, so the read endpoints write cached bytes instead of serializing
+ * again. Holds up to {@code users.json-cache.size} (default 65536, rounded up to a power of two, 0 disables) users.
+ * <p>
+ * The cache is direct mapped: each key has a single slot, and a user read later takes over the slot of an earlier one
+ * with a colliding key. Lookups and replacements are a single volatile read or write, without locks.
+ * <p>
+ * The users are still read from the {@link UserRepository}; a cached entry is used only for an equal user. So the
+ * cache never answers with users which are not stored anymore.
+ */
+@Component
+public class UserJsonCache {
+
+    private final ObjectMapper mapper;
+    private final AtomicReferenceArray<Json> slots;
+    private final int mask;
+
+    @Autowired
+    public UserJsonCache(ObjectMapper mapper, @Value("${users.json-cache.size:65536}") int size) {
+        int capacity = size <= 1 ? Math.max(size, 0) : Integer.highestOneBit(size - 1) << 1;
+
+        this.mapper = mapper;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public Json byId(UserId id, User user) {
+        return get(id, user);
+    }
+
+    public Json byUsername(String username, User user) {
+        return get(username, user);
+    }
+
+    private Json get(Object key, User user) {
+        if (slots.length() == 0) {
+            return serialize(key, user);
+        }
+
+        int slot = spread(key.hashCode()) & mask;
+        Json json = slots.get(slot);
+
+        if (json != null && json.key.equals(key) && (json.user == user || json.user.equals(user))) {
+            return json;
+        }
+
+        json = serialize(key, user);
+        slots.set(slot, json);
+
+        return json;
+    }
+
+    private Json serialize(Object key, User user) {
+        try {
+            return new Json(key, user, mapper.writeValueAsBytes(user));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize user", e);
+        }
+    }
+
+    /**
+     * Usernames hash poorly in their low bits
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A user serialized to JSON
+     */
+    public static final class Json {
+
+        private final Object key;
+        private final User user;
+        private final byte[] bytes;
+
+        private Json(Object key, User user, byte[] bytes) {
+            this.key = key;
+            this.user = user;
+            this.bytes = bytes;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+}
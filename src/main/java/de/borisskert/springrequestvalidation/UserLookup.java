@@ -0,0 +1,62 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The users found by many ids at once, and the ids not found. The users are converted to {@link UserPage.Item}s one at
+ * a time while the response is written, so they are streamed without a second copy of them all.
+ */
+@JsonPropertyOrder({"users", "missing"})
+public class UserLookup {
+
+    private final List<UserId> ids;
+    private final Map<UserId, User> found;
+
+    /**
+     * @param ids   the requested ids
+     * @param found the users found by their id, in order of the requested ids
+     */
+    public UserLookup(List<UserId> ids, Map<UserId, User> found) {
+        this.ids = ids;
+        this.found = found;
+    }
+
+    /**
+     * @return the ids parsed, or null if any of them is no valid {@link Uuid}
+     */
+    static List<UserId> parseIds(List<String> ids) {
+        List<UserId> parsed = new ArrayList<>(ids.size());
+
+        for (String id : ids) {
+            if (id == null || !UuidValidator.isUuid(id)) {
+                return null;
+            }
+
+            parsed.add(UserId.parse(id));
+        }
+
+        return parsed;
+    }
+
+    public Iterator<UserPage.Item> getUsers() {
+        return found.entrySet().stream()
+                .map(entry -> UserPage.Item.of(entry.getKey(), entry.getValue()))
+                .iterator();
+    }
+
+    /**
+     * @return the requested ids not found, once each
+     */
+    public Iterator<String> getMissing() {
+        return ids.stream()
+                .filter(id -> !found.containsKey(id))
+                .distinct()
+                .map(UserId::toString)
+                .iterator();
+    }
+}
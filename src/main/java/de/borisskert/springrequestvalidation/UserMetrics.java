@@ -0,0 +1,100 @@
+package de.borisskert.springrequestvalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import javax.validation.ConstraintViolation;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Meters of the users, exposed for Prometheus at {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code users_requests_seconds}: latency of every {@link UsersEndpoint} method by {@code endpoint}, with p50,
+ *     p99 and p99.9</li>
+ *     <li>{@code users_conflicts_total}: rejected users by {@code reason} ({@code id}, {@code username} or
+ *     {@code email})</li>
+ *     <li>{@code users_validation_failures_total}: constraint violations by {@code constraint}</li>
+ * </ul>
+ * The meters are looked up once, so recording is a lock-free update: the percentiles are computed from HdrHistogram
+ * recorders, the counters are striped adders.
+ */
+public class UserMetrics {
+
+    /**
+     * Records nothing, for users of the {@link UserService} without registry
+     */
+    public static final UserMetrics NONE = new UserMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry registry;
+
+    private final Map<Method, Timer> requestTimers = new HashMap<>();
+
+    private final Counter idConflicts;
+    private final Counter usernameConflicts;
+    private final Counter emailConflicts;
+
+    private final ConcurrentMap<Class<? extends Annotation>, Counter> validationFailures = new ConcurrentHashMap<>();
+
+    public UserMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (Method method : UsersEndpoint.handlerMethods()) {
+            requestTimers.put(method, Timer.builder("users.requests")
+                    .description("Latency of the users endpoint")
+                    .tag("endpoint", method.getName())
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .percentilePrecision(2)
+                    .register(registry));
+        }
+
+        idConflicts = conflictCounter("id");
+        usernameConflicts = conflictCounter("username");
+        emailConflicts = conflictCounter("email");
+    }
+
+    /**
+     * @return the timer of the specified {@link UsersEndpoint} method, or null for other methods
+     */
+    public Timer requestTimer(Method method) {
+        return requestTimers.get(method);
+    }
+
+    public void conflicted(SaveResult result) {
+        if (result == SaveResult.ID_EXISTS) {
+            idConflicts.increment();
+        } else if (result == SaveResult.USERNAME_EXISTS) {
+            usernameConflicts.increment();
+        } else if (result == SaveResult.EMAIL_EXISTS) {
+            emailConflicts.increment();
+        }
+    }
+
+    public void violated(Set<? extends ConstraintViolation<?>> violations) {
+        for (ConstraintViolation<?> violation : violations) {
+            Class<? extends Annotation> constraint = violation.getConstraintDescriptor().getAnnotation().annotationType();
+            validationFailures.computeIfAbsent(constraint, this::validationFailureCounter).increment();
+        }
+    }
+
+    private Counter conflictCounter(String reason) {
+        return Counter.builder("users.conflicts")
+                .description("Users rejected because their id, username or email already exists")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private Counter validationFailureCounter(Class<? extends Annotation> constraint) {
+        return Counter.builder("users.validation.failures")
+                .description("Constraint violations of users, ids and usernames")
+                .tag("constraint", constraint.getSimpleName())
+                .register(registry);
+    }
+}
@@ -0,0 +1,104 @@
+package de.borisskert.springrequestvalidation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A page of users listed by id, with the cursor to request the next page with, which is null on the last page
+ */
+public class UserPage {
+
+    private final List<Item> users;
+    private final String next;
+
+    public UserPage(List<Item> users, String next) {
+        this.users = users;
+        this.next = next;
+    }
+
+    /**
+     * @param users the users by id, of which one more than {@code limit} tells that the page isn't the last one
+     */
+    static UserPage of(Map<UserId, User> users, int limit) {
+        return of(users, limit, (id, user) -> id.toString());
+    }
+
+    /**
+     * @param cursor the cursor to request the users following the specified one with
+     */
+    static UserPage of(Map<UserId, User> users, int limit, BiFunction<UserId, User, String> cursor) {
+        List<Item> items = new ArrayList<>(Math.min(limit, users.size()));
+        Map.Entry<UserId, User> last = null;
+
+        for (Map.Entry<UserId, User> entry : users.entrySet()) {
+            if (items.size() == limit) {
+                return new UserPage(items, cursor.apply(last.getKey(), last.getValue()));
+            }
+
+            items.add(Item.of(entry.getKey(), entry.getValue()));
+            last = entry;
+        }
+
+        return new UserPage(items, null);
+    }
+
+    static List<Item> itemsOf(Map<UserId, User> users) {
+        return users.entrySet().stream()
+                .map(entry -> Item.of(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    public List<Item> getUsers() {
+        return users;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * A user listed along with its id
+     */
+    public static class Item {
+
+        private final String id;
+        private final String username;
+        private final String email;
+        private final LocalDate dateOfBirth;
+
+        public Item(String id, String username, String email, LocalDate dateOfBirth) {
+            this.id = id;
+            this.username = username;
+            this.email = email;
+            this.dateOfBirth = dateOfBirth;
+        }
+
+        static Item of(UserId id, User user) {
+            return new Item(id.toString(), user.getUsername(), user.getEmail(), user.getDateOfBirth());
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public LocalDate getDateOfBirth() {
+            return dateOfBirth;
+        }
+
+        public User toUser() {
+            return new User(username, email, dateOfBirth);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package de.borisskert.springrequestvalidation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary encoding of stored users:
+ * <pre>
+ * record  := length:int crc32:int payload
+ * payload := id:string username:string email:string dateOfBirth:int
+ * string  := length:int utf-8-bytes (length -1 for null)
+ * </pre>
+ * The date of birth is stored as epoch day, {@link Integer#MIN_VALUE} stands for null.
+ */
+final class UserRecords {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final int NULL = -1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+
+    private UserRecords() {
+    }
+
+    static ByteBuffer encode(UserId id, User user) {
+        byte[] idBytes = toBytes(id.toString());
+        byte[] username = toBytes(user.getUsername());
+        byte[] email = toBytes(user.getEmail());
+
+        int payloadSize = sizeOf(idBytes) + sizeOf(username) + sizeOf(email) + Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+
+        buffer.putInt(payloadSize);
+        buffer.putInt(0);
+        putBytes(buffer, idBytes);
+        putBytes(buffer, username);
+        putBytes(buffer, email);
+        buffer.putInt(toEpochDay(user.getDateOfBirth()));
+
+        buffer.putInt(Integer.BYTES, crc(buffer, HEADER_SIZE, payloadSize));
+
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the next record from the buffer and advances its position behind it.
+     *
+     * @return {@code false} without consuming anything if the buffer contains no complete and intact record
+     */
+    static boolean decode(ByteBuffer buffer, BiConsumer<UserId, User> consumer) {
+        int start = buffer.position();
+
+        if (buffer.remaining() < HEADER_SIZE) {
+            return false;
+        }
+
+        int payloadSize = buffer.getInt(start);
+        int crc = buffer.getInt(start + Integer.BYTES);
+
+        if (payloadSize < 0 || buffer.remaining() - HEADER_SIZE < payloadSize
+                || crc(buffer, start + HEADER_SIZE, payloadSize) != crc) {
+            return false;
+        }
+
+        buffer.position(start + HEADER_SIZE);
+
+        UserId id = UserId.parse(getString(buffer));
+        String username = getString(buffer);
+        String email = getString(buffer);
+        LocalDate dateOfBirth = toLocalDate(buffer.getInt());
+
+        consumer.accept(id, new User(username, email, dateOfBirth));
+        return true;
+    }
+
+    /**
+     * Reads all records from the specified position on through memory-mapped windows of at most 2 GiB each.
+     *
+     * @return the position behind the last complete and intact record
+     */
+    static long decodeAll(FileChannel channel, long position, BiConsumer<UserId, User> consumer) throws IOException {
+        long size = channel.size();
+
+        while (position < size) {
+            long windowSize = Math.min(size - position, Integer.MAX_VALUE);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+            boolean decoded;
+            do {
+                decoded = decode(window, consumer);
+            } while (decoded);
+
+            if (window.position() == 0) {
+                break;
+            }
+
+            position += window.position();
+        }
+
+        return position;
+    }
+
+    static int toEpochDay(LocalDate date) {
+        return date == null ? NULL_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    static LocalDate toLocalDate(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int sizeOf(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length == NULL) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(offset).limit(offset + length));
+
+        return (int) crc.getValue();
+    }
+}
@@ -1,29 +1,427 @@
 package de.borisskert.springrequestvalidation;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 @Component
 public class UserRepository {
 
-    private final Map<String, User> users = new HashMap<>();
+    private static final Logger LOG = LoggerFactory.getLogger(UserRepository.class);
 
-    public Optional<User> getById(String id) {
-        return Optional.ofNullable(users.get(id));
+    private final UserStore store;
+    private final UserJournal journal;
+    private final boolean uniqueEmails;
+
+    /**
+     * The ids of all stored users in their order, so users can be listed a page at a time
+     */
+    private final NavigableSet<UserId> ids = new ConcurrentSkipListSet<>();
+
+    /**
+     * The keys of all stored users by date of birth in order, so users can be found by ranges of dates of birth
+     */
+    private final NavigableSet<DateOfBirthKey> dateOfBirthKeys = new ConcurrentSkipListSet<>();
+
+    private final UserStatistics statistics = new UserStatistics();
+
+    public UserRepository() {
+        this(new HeapUserStore(), UserJournal.NONE);
+    }
+
+    @Autowired
+    public UserRepository(
+            ObjectProvider<UserStore> store,
+            ObjectProvider<UserJournal> journal,
+            @Value("${users.snapshot.path:#{null}}") Path snapshot,
+            @Value("${users.unique-emails:false}") boolean uniqueEmails
+    ) {
+        this(store.getIfAvailable(HeapUserStore::new), journal.getIfAvailable(() -> UserJournal.NONE), snapshot, uniqueEmails);
+    }
+
+    public UserRepository(UserStore store, UserJournal journal) {
+        this(store, journal, false);
+    }
+
+    /**
+     * Restores all users from the journal before accepting new ones
+     *
+     * @param uniqueEmails whether users are rejected if another user has the same normalized email already
+     */
+    public UserRepository(UserStore store, UserJournal journal, boolean uniqueEmails) {
+        this(store, journal, null, uniqueEmails);
+    }
+
+    /**
+     * Restores all users from the {@link UserSnapshot}, if it exists, and from the part of the journal appended after
+     * the snapshot was taken before accepting new ones
+     *
+     * @param snapshot     the path of the snapshot or {@code null}
+     * @param uniqueEmails whether users are rejected if another user has the same normalized email already
+     */
+    public UserRepository(UserStore store, UserJournal journal, Path snapshot, boolean uniqueEmails) {
+        this.store = store;
+        this.journal = journal;
+        this.uniqueEmails = uniqueEmails;
+        journal.replay(snapshot != null && Files.exists(snapshot) ? restoreSnapshot(snapshot) : 0, this::restore);
+    }
+
+    public Optional<User> getById(UserId id) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            return Optional.ofNullable(store.get(id));
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Reads the users of all ids with a single call to the store, see {@link UserStore#getAll(UserId[])}
+     *
+     * @return the users found by their id, in order of the ids
+     */
+    public Map<UserId, User> getAll(List<UserId> ids) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            UserId[] idArray = ids.toArray(new UserId[0]);
+            User[] users = store.getAll(idArray);
+            Map<UserId, User> found = new LinkedHashMap<>(users.length * 2);
+
+            for (int position = 0; position < users.length; position++) {
+                if (users[position] != null) {
+                    found.put(idArray[position], users[position]);
+                }
+            }
+
+            return found;
+        } finally {
+            RequestTrace.exit();
+        }
     }
 
     public Optional<User> findByUsername(String username) {
-        return users.values()
-                .stream()
-                .filter(user -> Objects.equals(user.getUsername(), username))
-                .findFirst();
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            return Optional.ofNullable(store.findByUsername(username));
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Finds the users by email through the email index of the store, ignoring the case and surrounding whitespace of
+     * the emails, see {@link UserStore#findByEmail(String)}
+     *
+     * @return the users by their id, in no particular order
+     */
+    public Map<UserId, User> findByEmail(String email) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            return store.findByEmail(email);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Lists the users by id, starting after the specified one. Costs O(log n) to find the start, plus the listed users.
+     * <p>
+     * Listing page by page after the last id of the previous page neither skips nor repeats users while others are
+     * saved concurrently. Users saved meanwhile are listed if their ids are greater than the last id listed.
+     *
+     * @param after the id to list the users after, which doesn't need to exist, null to start with the first user
+     * @return up to {@code limit} users by their id, in ascending order of the ids
+     */
+    public Map<UserId, User> list(UserId after, int limit) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            Map<UserId, User> users = new LinkedHashMap<>();
+
+            for (UserId id : after == null ? ids : ids.tailSet(after, false)) {
+                if (users.size() >= limit) {
+                    break;
+                }
+
+                User user = store.get(id);
+
+                // released again since listed by the index
+                if (user != null) {
+                    users.put(id, user);
+                }
+            }
+
+            return users;
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Searches the users whose usernames start with the prefix through the username order of the store, see
+     * {@link UserStore#findByUsernamePrefix(String, int)}
+     *
+     * @return up to {@code limit} users by their id, in order of their usernames
+     */
+    public Map<UserId, User> findByUsernamePrefix(String prefix, int limit) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            return store.findByUsernamePrefix(prefix, limit);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Finds the users born after and before the specified days, both exclusive. Costs O(log n) comparisons of epoch
+     * days and ids to find the first user, plus the found users.
+     * <p>
+     * Like {@link #list(UserId, int)}, continuing after the key of the last user found before neither skips nor
+     * repeats users while others are saved concurrently.
+     *
+     * @param bornAfter  the epoch day the users are born after
+     * @param bornBefore the epoch day the users are born before
+     * @param after      the key to continue after, null to start with the first user born after {@code bornAfter}
+     * @return up to {@code limit} users by their id, in order of their dates of birth and ids
+     */
+    public Map<UserId, User> findByDateOfBirth(long bornAfter, long bornBefore, DateOfBirthKey after, int limit) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            DateOfBirthKey from = DateOfBirthKey.first(bornAfter + 1);
+            DateOfBirthKey to = DateOfBirthKey.first(bornBefore);
+            boolean fromInclusive = after == null || after.compareTo(from) < 0;
+
+            if (!fromInclusive) {
+                from = after;
+            }
+
+            Map<UserId, User> users = new LinkedHashMap<>();
+
+            if (from.compareTo(to) >= 0) {
+                return users;
+            }
+
+            for (DateOfBirthKey key : dateOfBirthKeys.subSet(from, fromInclusive, to, false)) {
+                if (users.size() >= limit) {
+                    break;
+                }
+
+                User user = store.get(key.getId());
+
+                // released again since found in the index
+                if (user != null && user.getDateOfBirth().toEpochDay() == key.getEpochDay()) {
+                    users.put(key.getId(), user);
+                }
+            }
+
+            return users;
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Claims the id and the username together and returns after the user has been journaled.
+     */
+    public SaveResult save(UserId id, User user) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            SaveResult result = claim(id, user);
+
+            if (result == SaveResult.SAVED) {
+                awaitJournaled(id, user, journal.append(id, user));
+            }
+
+            return result;
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Claims the id and the username together like {@link #save(UserId, User)}, without waiting for the journal.
+     * Completes when the user has been journaled, or exceptionally with an {@link IllegalStateException} after
+     * releasing the user again if it could not be journaled.
+     */
+    public CompletableFuture<SaveResult> saveAsync(UserId id, User user) {
+        SaveResult result = claim(id, user);
+
+        if (result != SaveResult.SAVED) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        return journal.append(id, user).handle((ignored, failure) -> {
+            if (failure != null) {
+                release(id, user);
+                throw new IllegalStateException("Cannot journal user '" + id + "'", unwrap(failure));
+            }
+
+            return SaveResult.SAVED;
+        });
+    }
+
+    /**
+     * Saves all users as in {@link #save(UserId, User)}, keeping the iteration order of the given map.
+     * All saved users are journaled together.
+     */
+    public Map<UserId, SaveResult> saveAll(Map<UserId, User> usersById) {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            Map<UserId, SaveResult> results = new LinkedHashMap<>();
+            Map<UserId, CompletableFuture<Void>> appends = new LinkedHashMap<>();
+
+            usersById.forEach((id, user) -> {
+                SaveResult result = claim(id, user);
+                results.put(id, result);
+
+                if (result == SaveResult.SAVED) {
+                    appends.put(id, journal.append(id, user));
+                }
+            });
+
+            appends.forEach((id, append) -> awaitJournaled(id, usersById.get(id), append));
+
+            return results;
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Saves a user restored from a persistent source without journaling it again.
+     * Users already stored are skipped, so sources may overlap. Emails are not checked for uniqueness, so users saved
+     * before uniqueness was required are restored too.
+     */
+    void restore(UserId id, User user) {
+        claim(id, user, false);
+    }
+
+    /**
+     * @return the journal position every user journaled before has been stored at, see {@link UserSnapshot}
+     */
+    long journalPosition() {
+        return journal.position();
+    }
+
+    /**
+     * @return the journal position to replay the journal from
+     */
+    private long restoreSnapshot(Path snapshot) {
+        long start = System.nanoTime();
+
+        try {
+            long journalPosition = UserSnapshot.load(snapshot, this::restore);
+
+            LOG.info("Restored {} users from snapshot '{}' in {} ms",
+                    size(), snapshot, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            return journalPosition;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load snapshot '" + snapshot + "'", e);
+        }
+    }
+
+    /**
+     * Iterates over all stored users without blocking concurrent saves.
+     * Users saved while iterating may or may not be visited.
+     */
+    public void forEach(BiConsumer<UserId, User> action) {
+        store.forEach(action);
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * @see UserStatistics#snapshot()
+     */
+    public UserStats stats() {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+
+        try {
+            return statistics.snapshot();
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    private SaveResult claim(UserId id, User user) {
+        return claim(id, user, uniqueEmails);
+    }
+
+    /**
+     * The store claims the id, the username and, if it has to be unique, the email of the user atomically. The other
+     * indexes are updated after storing the user, so they never list an id which hasn't been stored.
+     */
+    private SaveResult claim(UserId id, User user, boolean uniqueEmail) {
+        SaveResult result = store.putIfAbsent(id, user, uniqueEmail);
+
+        if (result != SaveResult.SAVED) {
+            return result;
+        }
+
+        ids.add(id);
+        dateOfBirthKeys.add(DateOfBirthKey.of(id, user));
+        statistics.added(user);
+
+        return result;
+    }
+
+    private void release(UserId id, User user) {
+        ids.remove(id);
+        dateOfBirthKeys.remove(DateOfBirthKey.of(id, user));
+        statistics.removed(user);
+        store.remove(id, user);
+    }
+
+    /**
+     * Emails are compared ignoring case, so {@code John.Smith@FakeMail.com} is the same as {@code john.smith@fakemail.com}
+     */
+    static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
     }
 
-    public void save(String id, User user) {
-        users.put(id, user);
+    /**
+     * Releases the claimed user again if it could not be journaled
+     */
+    private void awaitJournaled(UserId id, User user, CompletableFuture<Void> append) {
+        try {
+            append.join();
+        } catch (CompletionException e) {
+            release(id, user);
+            throw new IllegalStateException("Cannot journal user '" + id + "'", e.getCause());
+        }
     }
 }
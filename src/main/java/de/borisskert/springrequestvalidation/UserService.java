@@ -3,60 +3,283 @@ package de.borisskert.springrequestvalidation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import javax.validation.Valid;
-import java.util.Optional;
-import java.util.UUID;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService {
 
     private final UserRepository repository;
+    private final Validator validator;
+    private final IdGenerator idGenerator;
+    private final UserMetrics metrics;
 
     @Autowired
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository, Validator validator, IdGenerator idGenerator, UserMetrics metrics) {
         this.repository = repository;
+        this.validator = validator;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
     }
 
-    public Optional<User> getUserById(@PathVariable String id) {
-        return repository.getById(id);
+    public Optional<User> getUserById(@PathVariable UserId id) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return repository.getById(id);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Reads the users of all ids with a single repository call
+     */
+    public UserLookup lookup(List<UserId> ids) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return new UserLookup(ids, repository.getAll(ids));
+        } finally {
+            RequestTrace.exit();
+        }
     }
 
     public Optional<User> findByUsername(@RequestParam String username) {
-        return repository.findByUsername(username);
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return repository.findByUsername(username);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    public List<UserPage.Item> findByEmail(String email) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return UserPage.itemsOf(repository.findByEmail(email));
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    public UserStats stats() {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return repository.stats();
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Lists a page of users by id
+     *
+     * @param after the cursor of the previous page, null for the first page
+     */
+    public UserPage list(UserId after, int limit) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return UserPage.of(repository.list(after, limit + 1), limit);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Finds a page of users born after and before the specified days, both exclusive, by date of birth
+     *
+     * @param after the cursor of the previous page, null for the first page
+     */
+    public UserPage findByDateOfBirth(LocalDate bornAfter, LocalDate bornBefore, DateOfBirthKey after, int limit) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            Map<UserId, User> users = repository.findByDateOfBirth(bornAfter.toEpochDay(), bornBefore.toEpochDay(), after, limit + 1);
+            return UserPage.of(users, limit, (id, user) -> DateOfBirthKey.of(id, user).toString());
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    public List<UserPage.Item> findByUsernamePrefix(String prefix, int limit) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            return UserPage.itemsOf(repository.findByUsernamePrefix(prefix, limit));
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    /**
+     * Validates the user and saves it with a new id
+     */
+    public WriteResult create(User user) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            List<String> errors = validate(user);
+
+            if (!errors.isEmpty()) {
+                return WriteResult.invalid(errors);
+            }
+
+            UserId id = createNewId();
+            return save(id, user);
+        } finally {
+            RequestTrace.exit();
+        }
     }
 
-    public String create(@RequestBody @Valid User user) {
-        throwIfUsernameExists(user.getUsername());
+    /**
+     * Validates every user on its own and saves all valid users with a single repository call.
+     * Users failing validation or conflicting with another user (stored or within the batch) are rejected.
+     */
+    public List<BatchItemResult> createAll(List<User> users) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            List<List<String>> errors = users.stream()
+                    .map(this::validate)
+                    .collect(Collectors.toList());
+
+            return createAll(0, users, errors);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
 
-        String id = createNewId();
-        repository.save(id, user);
+    /**
+     * Saves the users which have been validated before (see {@link #validate(User)}), rejecting those with errors.
+     *
+     * @param firstIndex the index to report for the first user
+     */
+    List<BatchItemResult> createAll(int firstIndex, List<User> users, List<List<String>> errors) {
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+
+        Set<String> usernames = new HashSet<>();
+        Map<UserId, User> accepted = new LinkedHashMap<>();
+        Map<UserId, Integer> positionsById = new HashMap<>();
+
+        for (int position = 0; position < users.size(); position++) {
+            User user = users.get(position);
+            List<String> userErrors = errors.get(position);
+
+            if (!userErrors.isEmpty()) {
+                results[position] = BatchItemResult.invalid(firstIndex + position, userErrors);
+            } else if (!usernames.add(user.getUsername())) {
+                metrics.conflicted(SaveResult.USERNAME_EXISTS);
+                results[position] = BatchItemResult.conflict(firstIndex + position, usernameExistsMessage(user));
+            } else {
+                UserId id = createNewId();
+                accepted.put(id, user);
+                positionsById.put(id, position);
+            }
+        }
 
-        return id;
+        repository.saveAll(accepted).forEach((id, result) -> {
+            int position = positionsById.get(id);
+            metrics.conflicted(result);
+
+            if (result == SaveResult.SAVED) {
+                results[position] = BatchItemResult.created(firstIndex + position, id.toString());
+            } else {
+                results[position] = BatchItemResult.conflict(firstIndex + position, conflictMessage(id, accepted.get(id), result));
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates the user and saves it with the specified id
+     */
+    public WriteResult insert(UserId id, User user) {
+        RequestTrace.enter(RequestPhase.SERVICE);
+
+        try {
+            List<String> errors = validate(user);
+
+            if (!errors.isEmpty()) {
+                return WriteResult.invalid(errors);
+            }
+
+            return save(id, user);
+        } finally {
+            RequestTrace.exit();
+        }
     }
 
-    public void insert(@PathVariable String id, @RequestBody @Valid User user) {
-        throwIfIdExists(id);
-        throwIfUsernameExists(user.getUsername());
+    private WriteResult save(UserId id, User user) {
+        SaveResult result = repository.save(id, user);
+        metrics.conflicted(result);
 
-        repository.save(id, user);
+        return WriteResult.of(id, result);
     }
 
-    private String createNewId() {
-        return UUID.randomUUID().toString();
+    private UserId createNewId() {
+        return idGenerator.newId();
     }
 
-    private void throwIfIdExists(String id) {
-        if (repository.getById(id).isPresent()) {
-            throw new UsernameAlreadyExistsException("Id '" + id + "' already exists");
+    /**
+     * @return the constraint violations of the specified user as sorted "property: message" strings
+     */
+    List<String> validate(User user) {
+        if (user == null) {
+            return List.of("user: must not be null");
         }
+
+        Set<ConstraintViolation<User>> violations = violationsOf(user);
+
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+
+        metrics.violated(violations);
+
+        return violations.stream()
+                .map(this::toMessage)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private Set<ConstraintViolation<User>> violationsOf(User user) {
+        RequestTrace.enter(RequestPhase.BEAN_VALIDATION);
+
+        try {
+            return validator.validate(user);
+        } finally {
+            RequestTrace.exit();
+        }
+    }
+
+    private String toMessage(ConstraintViolation<User> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
     }
 
-    private void throwIfUsernameExists(String username) {
-        if (repository.findByUsername(username).isPresent()) {
-            throw new UsernameAlreadyExistsException("Username '" + username + "' already exists");
+    private String conflictMessage(UserId id, User user, SaveResult result) {
+        if (result == SaveResult.ID_EXISTS) {
+            return "Id '" + id + "' already exists";
+        }
+
+        if (result == SaveResult.EMAIL_EXISTS) {
+            return "Email '" + user.getEmail() + "' already exists";
         }
+
+        return usernameExistsMessage(user);
+    }
+
+    private String usernameExistsMessage(User user) {
+        return "Username '" + user.getUsername() + "' already exists";
     }
 }
@@ -0,0 +1,164 @@
+package de.borisskert.springrequestvalidation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Binary snapshot of all users of a {@link UserRepository}: a header (magic number, format version and the
+ * {@link UserJournal#position()} the snapshot contains all users up to) followed by the users encoded as
+ * {@link UserRecords}. Snapshots of version 1 have no journal position, so the whole journal is replayed after them.
+ */
+public final class UserSnapshot {
+
+    private static final int MAGIC = 0x55534E50;
+    private static final int VERSION = 2;
+    private static final int VERSION_1_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int HEADER_SIZE = VERSION_1_HEADER_SIZE + Long.BYTES;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private UserSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot into a temporary file which replaces the specified one when complete.
+     * Doesn't block concurrent saves, users saved while writing may or may not be part of the snapshot. The journal
+     * position is taken before, so every user journaled before it has been stored and is part of the snapshot.
+     *
+     * @return the number of written users
+     */
+    public static long write(Path path, UserRepository repository) throws IOException {
+        long journalPosition = repository.journalPosition();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        long count;
+
+        try (FileChannel channel = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        )) {
+            BufferedWriter writer = new BufferedWriter(channel);
+            writer.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(journalPosition).flip());
+
+            try {
+                repository.forEach(writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            writer.flush();
+            channel.force(false);
+
+            count = writer.count;
+        }
+
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return count;
+    }
+
+    /**
+     * Reads the snapshot memory-mapped (see {@link UserRecords#decodeAll})
+     *
+     * @return the journal position to replay the journal from, after the users of the snapshot
+     */
+    public static long load(Path path, BiConsumer<UserId, User> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, VERSION_1_HEADER_SIZE);
+
+            if (header.remaining() < VERSION_1_HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("'" + path + "' is no user snapshot");
+            }
+
+            int version = header.getInt();
+            long journalPosition = 0;
+
+            if (version == VERSION) {
+                ByteBuffer position = read(channel, Long.BYTES);
+
+                if (position.remaining() < Long.BYTES) {
+                    throw new IOException("User snapshot '" + path + "' has no journal position");
+                }
+
+                journalPosition = position.getLong();
+            } else if (version != 1) {
+                throw new IOException("'" + path + "' is a user snapshot of unknown version " + version);
+            }
+
+            long end = UserRecords.decodeAll(channel, channel.position(), consumer);
+
+            if (end < channel.size()) {
+                throw new IOException("User snapshot '" + path + "' is corrupt at " + end + " of " + channel.size() + " bytes");
+            }
+
+            return journalPosition;
+        }
+    }
+
+    /**
+     * @return a buffer with the bytes read up to the specified size, less at the end of the file
+     */
+    private static ByteBuffer read(FileChannel channel, int size) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(size);
+
+        int read;
+        do {
+            read = channel.read(bytes);
+        } while (read >= 0 && bytes.hasRemaining());
+
+        return bytes.flip();
+    }
+
+    private static class BufferedWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private long count;
+
+        private BufferedWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void write(UserId id, User user) {
+            try {
+                write(UserRecords.encode(id, user));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            count++;
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            if (bytes.remaining() > buffer.remaining()) {
+                flush();
+            }
+
+            if (bytes.remaining() > buffer.capacity()) {
+                writeFully(bytes);
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+}
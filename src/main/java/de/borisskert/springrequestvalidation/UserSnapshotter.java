@@ -0,0 +1,74 @@
+package de.borisskert.springrequestvalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Writes {@link UserSnapshot}s of the {@link UserRepository} in the background. They are restored by the repository.
+ */
+public class UserSnapshotter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserSnapshotter.class);
+
+    private final UserRepository repository;
+    private final Path path;
+    private final Duration interval;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-snapshotter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserSnapshotter(UserRepository repository, Path path, Duration interval) {
+        this.repository = repository;
+        this.path = path;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!interval.isZero() && !interval.isNegative()) {
+            executor.scheduleWithFixedDelay(this::writeLogging, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return a future completing when the snapshot has been written
+     */
+    public CompletableFuture<Long> writeInBackground() {
+        return CompletableFuture.supplyAsync(this::write, executor);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        write();
+    }
+
+    private long write() {
+        try {
+            return UserSnapshot.write(path, repository);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot '" + path + "'", e);
+        }
+    }
+
+    private void writeLogging() {
+        try {
+            write();
+        } catch (UncheckedIOException e) {
+            LOG.error(e.getMessage(), e.getCause());
+        }
+    }
+}
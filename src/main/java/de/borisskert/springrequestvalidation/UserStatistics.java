@@ -0,0 +1,94 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of the users stored by the {@link UserRepository}, updated as users are stored and released, so reading them
+ * doesn't depend on the number of users.
+ * <p>
+ * The counters are {@link LongAdder}s, which spread concurrent updates over cells instead of contending on a single
+ * value. Each birth year and email domain gets its counter on its first user. Only the first
+ * {@value #MAX_EMAIL_DOMAINS} email domains get their own counter, the users of all later domains are counted together,
+ * so the counters of a store with many rare domains don't grow with its number of users.
+ */
+public class UserStatistics {
+
+    static final int MAX_EMAIL_DOMAINS = 1000;
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentMap<Integer, LongAdder> byBirthYear = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> byEmailDomain = new ConcurrentHashMap<>();
+    private final LongAdder otherEmailDomains = new LongAdder();
+
+    void added(User user) {
+        total.increment();
+        counterOf(byBirthYear, user.getDateOfBirth().getYear()).increment();
+        emailDomainCounterOf(user).increment();
+    }
+
+    void removed(User user) {
+        total.decrement();
+        counterOf(byBirthYear, user.getDateOfBirth().getYear()).decrement();
+        emailDomainCounterOf(user).decrement();
+    }
+
+    /**
+     * Sums the counters, which is not atomic: users stored meanwhile may be counted by some of the sums only. Costs
+     * O(1) for the total, plus the number of birth years and at most {@value #MAX_EMAIL_DOMAINS} email domains.
+     */
+    public UserStats snapshot() {
+        return new UserStats(total.sum(), sum(byBirthYear), sum(byEmailDomain), otherEmailDomains.sum());
+    }
+
+    /**
+     * @return the part after the last {@code @}, in lowercase
+     */
+    static String domainOf(String email) {
+        return email.substring(email.lastIndexOf('@') + 1).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A domain is only rejected once the limit is reached, and domains are never removed, so a user is counted by the
+     * same counter when stored and when released.
+     */
+    private LongAdder emailDomainCounterOf(User user) {
+        String domain = domainOf(user.getEmail());
+        LongAdder counter = byEmailDomain.get(domain);
+
+        if (counter == null) {
+            counter = byEmailDomain.computeIfAbsent(
+                    domain,
+                    ignored -> byEmailDomain.size() < MAX_EMAIL_DOMAINS ? new LongAdder() : null
+            );
+        }
+
+        return counter != null ? counter : otherEmailDomains;
+    }
+
+    private static <K> LongAdder counterOf(ConcurrentMap<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, ignored -> new LongAdder());
+    }
+
+    /**
+     * @return the sums by key, sorted by key, without keys of released users only
+     */
+    private static <K extends Comparable<K>> Map<K, Long> sum(ConcurrentMap<K, LongAdder> counters) {
+        Map<K, Long> sums = new TreeMap<>();
+
+        counters.forEach((key, counter) -> {
+            long sum = counter.sum();
+
+            if (sum > 0) {
+                sums.put(key, sum);
+            }
+        });
+
+        return sums;
+    }
+}
@@ -0,0 +1,46 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.Map;
+
+/**
+ * The counts of the stored users, see {@link UserStatistics}
+ */
+public class UserStats {
+
+    private final long total;
+    private final Map<Integer, Long> byBirthYear;
+    private final Map<String, Long> byEmailDomain;
+    private final long otherEmailDomains;
+
+    public UserStats(long total, Map<Integer, Long> byBirthYear, Map<String, Long> byEmailDomain, long otherEmailDomains) {
+        this.total = total;
+        this.byBirthYear = byBirthYear;
+        this.byEmailDomain = byEmailDomain;
+        this.otherEmailDomains = otherEmailDomains;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of users by the year of their date of birth, ordered by year
+     */
+    public Map<Integer, Long> getByBirthYear() {
+        return byBirthYear;
+    }
+
+    /**
+     * @return the number of users by the lowercase domain of their email, ordered by domain
+     */
+    public Map<String, Long> getByEmailDomain() {
+        return byEmailDomain;
+    }
+
+    /**
+     * @return the number of users whose email domain is beyond the domains counted by {@link #getByEmailDomain()}
+     */
+    public long getOtherEmailDomains() {
+        return otherEmailDomains;
+    }
+}
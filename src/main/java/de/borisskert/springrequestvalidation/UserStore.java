@@ -0,0 +1,74 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds the users of the {@link UserRepository}, indexed by id, username, username order and email
+ *
+ * @see HeapUserStore
+ * @see CompactUserStore
+ */
+public interface UserStore {
+
+    User get(UserId id);
+
+    User findByUsername(String username);
+
+    /**
+     * Searches the users whose usernames start with the prefix, in O(log n) comparisons plus the found users
+     *
+     * @return up to {@code limit} users by their id, in order of their usernames
+     */
+    Map<UserId, User> findByUsernamePrefix(String prefix, int limit);
+
+    /**
+     * Finds the users by email, ignoring the case and surrounding whitespace of the emails
+     * (see {@link UserRepository#normalize(String)})
+     *
+     * @return the users by their id, in no particular order
+     */
+    Map<UserId, User> findByEmail(String email);
+
+    /**
+     * Reads the users of many ids at once. Stores may read ids close to each other together, with less synchronization
+     * than a {@link #get(UserId)} for each id.
+     *
+     * @return the users at the positions of their ids, null for ids not stored
+     */
+    default User[] getAll(UserId[] ids) {
+        User[] users = new User[ids.length];
+
+        for (int position = 0; position < ids.length; position++) {
+            users[position] = get(ids[position]);
+        }
+
+        return users;
+    }
+
+    /**
+     * Stores the user only if neither its id nor its username is taken, atomically
+     */
+    default SaveResult putIfAbsent(UserId id, User user) {
+        return putIfAbsent(id, user, false);
+    }
+
+    /**
+     * Stores the user only if neither its id nor its username is taken, nor its normalized email if it has to be
+     * unique, atomically. The id is checked first, then the username and the email.
+     */
+    SaveResult putIfAbsent(UserId id, User user, boolean uniqueEmail);
+
+    /**
+     * Removes the user stored by {@link #putIfAbsent(UserId, User)} before
+     */
+    void remove(UserId id, User user);
+
+    /**
+     * Iterates over all stored users without blocking concurrent puts.
+     * Users stored while iterating may or may not be visited.
+     */
+    void forEach(BiConsumer<UserId, User> action);
+
+    int size();
+}
@@ -0,0 +1,18 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the {@link UserStore} by the property {@code users.store}: {@code heap} (default) or {@code compact}
+ */
+@Configuration
+public class UserStoreConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "users.store", havingValue = "compact")
+    public CompactUserStore compactUserStore() {
+        return new CompactUserStore();
+    }
+}
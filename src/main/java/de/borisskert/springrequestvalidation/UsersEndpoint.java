@@ -1,50 +1,223 @@
 package de.borisskert.springrequestvalidation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import javax.validation.Valid;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UsersEndpoint {
 
     private final UserService service;
+    private final UserImporter importer;
+    private final UserJsonCache jsonCache;
+    private final int maxBatchSize;
 
     @Autowired
-    public UsersEndpoint(UserService service) {
+    public UsersEndpoint(
+            UserService service,
+            UserImporter importer,
+            UserJsonCache jsonCache,
+            @Value("${users.batch.max-size:50000}") int maxBatchSize
+    ) {
         this.service = service;
+        this.importer = importer;
+        this.jsonCache = jsonCache;
+        this.maxBatchSize = maxBatchSize;
     }
 
+    /**
+     * Answers with the {@link UserETag} of the user, so a request with a matching {@code If-None-Match} header is
+     * answered by 304 Not Modified without serializing the user
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable @Uuid String id) {
-        return service.getUserById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<?> getUserById(@PathVariable @Uuid String id, WebRequest request) {
+        UserId userId = UserId.parse(id);
+
+        return service.getUserById(userId)
+                .map(user -> {
+                    String eTag = UserETag.of(user);
+
+                    return request.checkNotModified(eTag)
+                            ? notModified()
+                            : ok(eTag, jsonCache.byId(userId, user));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @GetMapping(params = "username")
-    public ResponseEntity<?> findByUsername(@RequestParam @Size(min = 6, max = 12) String username) {
+    @GetMapping(params = {"username", "!email"})
+    public ResponseEntity<?> findByUsername(@RequestParam @Size(min = 6, max = 12) String username, WebRequest request) {
         return service.findByUsername(username)
-                .map(ResponseEntity::ok)
+                .map(user -> {
+                    String eTag = UserETag.of(user);
+
+                    return request.checkNotModified(eTag)
+                            ? notModified()
+                            : ok(eTag, jsonCache.byUsername(username, user));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Lists the users a page at a time, by id. The {@code next} cursor of a page requests the following page.
+     * The limit is required, so {@code /api/users/} is still answered like an empty id.
+     */
+    @GetMapping(params = {"limit", "!username", "!usernamePrefix", "!email", "!bornAfter", "!bornBefore"})
+    public UserPage list(
+            @RequestParam(required = false) @Uuid String after,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.list(after == null ? null : UserId.parse(after), limit);
+    }
+
+    /**
+     * Finds users by email, ignoring case. With {@code users.unique-emails} there is one user at most.
+     */
+    @GetMapping(params = {"email", "!username"})
+    public List<UserPage.Item> findByEmail(@RequestParam @NotEmpty @Email String email) {
+        return service.findByEmail(email);
+    }
+
+    /**
+     * Searches users by the beginning of their usernames, in the order of the usernames, for autocompletion
+     */
+    @GetMapping(params = {"usernamePrefix", "limit"})
+    public List<UserPage.Item> findByUsernamePrefix(
+            @RequestParam @Size(min = 1, max = 12) String usernamePrefix,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.findByUsernamePrefix(usernamePrefix, limit);
+    }
+
+    /**
+     * Finds users born after and before the specified dates, both exclusive, a page at a time, ordered by date of
+     * birth. The {@code next} cursor of a page requests the following page.
+     */
+    @GetMapping(params = {"bornAfter", "bornBefore", "limit"})
+    public UserPage findByDateOfBirth(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornAfter,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornBefore,
+            @RequestParam(required = false) @DateOfBirthCursor String after,
+            @RequestParam @Min(1) @Max(1000) int limit
+    ) {
+        return service.findByDateOfBirth(bornAfter, bornBefore, after == null ? null : DateOfBirthKey.parse(after), limit);
+    }
+
+    /**
+     * Counts the users in total, by birth year and by email domain, from counters updated as users are saved
+     */
+    @GetMapping("/stats")
+    public UserStats stats() {
+        return service.stats();
+    }
+
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody @Valid User user) {
-        String createdId = service.create(user);
+    public ResponseEntity<?> create(@RequestBody User user) {
+        WriteResult result = service.create(user);
 
-        return ResponseEntity.created(URI.create("/api/users/" + createdId))
+        if (!result.isSaved()) {
+            return ErrorResponses.of(result);
+        }
+
+        return ResponseEntity.created(URI.create("/api/users/" + result.getId()))
                 .build();
     }
 
+    /**
+     * Creates up to {@code users.batch.max-size} users at once, more are answered with 400 Bad Request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createAll(@RequestBody List<User> users) {
+        if (users.size() > maxBatchSize) {
+            return ErrorResponses.INVALID_PARAMETER;
+        }
+
+        return ResponseEntity.ok(service.createAll(users));
+    }
+
+    @PostMapping(path = "/import", consumes = UserImporter.NDJSON, produces = UserImporter.NDJSON)
+    public void importUsers(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(UserImporter.NDJSON);
+        importer.importUsers(body, response.getOutputStream());
+    }
+
+    /**
+     * Reads up to 1000 users at once. Answers the users found and the ids not found, in the order of the ids.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookup(@RequestBody @Size(min = 1, max = 1000) List<String> ids) {
+        List<UserId> userIds = UserLookup.parseIds(ids);
+
+        if (userIds == null) {
+            return ErrorResponses.INVALID_PARAMETER;
+        }
+
+        return ResponseEntity.ok(service.lookup(userIds));
+    }
+
     @PutMapping("/{id}")
-    public void insert(@PathVariable @Uuid String id, @RequestBody @Valid User user) {
-        service.insert(id, user);
+    public ResponseEntity<?> insert(@PathVariable @Uuid String id, @RequestBody User user) {
+        WriteResult result = service.insert(UserId.parse(id), user);
+
+        if (!result.isSaved()) {
+            return ErrorResponses.of(result);
+        }
+
+        return ResponseEntity.ok()
+                .build();
+    }
+
+    /**
+     * Writes the cached JSON of the user as it is
+     */
+    private static ResponseEntity<byte[]> ok(String eTag, UserJsonCache.Json json) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .body(json.getBytes());
+    }
+
+    /**
+     * The status and the ETag have been set by {@code checkNotModified} already
+     */
+    private static ResponseEntity<byte[]> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .build();
+    }
+
+    /**
+     * @return the methods handling requests, ordered by name
+     */
+    static List<Method> handlerMethods() {
+        return Arrays.stream(UsersEndpoint.class.getDeclaredMethods())
+                .filter(method -> AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class))
+                .sorted(Comparator.comparing(Method::getName))
+                .collect(Collectors.toList());
     }
 }
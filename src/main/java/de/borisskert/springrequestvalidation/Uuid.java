@@ -2,7 +2,6 @@ package de.borisskert.springrequestvalidation;
 
 import javax.validation.Constraint;
 import javax.validation.Payload;
-import javax.validation.constraints.Pattern;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -11,11 +10,13 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 /**
  * https://stackoverflow.com/a/37322115
+ * <p>
+ * Accepts lowercase UUIDs of the versions 1 to 5 and the time-ordered version 7 (see {@link TimeOrderedIdGenerator}),
+ * as described by {@link UuidValidator#PATTERN}.
  */
 @Target({ElementType.FIELD, ElementType.PARAMETER})
-@Constraint(validatedBy = {})
+@Constraint(validatedBy = UuidValidator.class)
 @Retention(RUNTIME)
-@Pattern(regexp = "^[0-9a-f]{8}-[0-9a-f]{4}-[1-5][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$")
 public @interface Uuid {
     String message() default "{invalid.uuid}";
 
@@ -0,0 +1,57 @@
+package de.borisskert.springrequestvalidation;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validates {@link Uuid}s in a single pass over the characters, without regular expression and without allocation.
+ * Accepts exactly what the pattern {@value #PATTERN} accepts.
+ */
+public class UuidValidator implements ConstraintValidator<Uuid, CharSequence> {
+
+    public static final String PATTERN = "^[0-9a-f]{8}-[0-9a-f]{4}-[1-57][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$";
+
+    private static final int LENGTH = 36;
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || isUuid(value);
+    }
+
+    public static boolean isUuid(CharSequence value) {
+        if (value.length() != LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < LENGTH; i++) {
+            char c = value.charAt(i);
+
+            switch (i) {
+                case 8:
+                case 13:
+                case 18:
+                case 23:
+                    if (c != '-') {
+                        return false;
+                    }
+                    break;
+                case 14:
+                    if ((c < '1' || c > '5') && c != '7') {
+                        return false;
+                    }
+                    break;
+                case 19:
+                    if (c != '8' && c != '9' && c != 'a' && c != 'b') {
+                        return false;
+                    }
+                    break;
+                default:
+                    if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                        return false;
+                    }
+            }
+        }
+
+        return true;
+    }
+}
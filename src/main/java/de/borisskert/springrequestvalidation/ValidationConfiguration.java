@@ -0,0 +1,31 @@
+package de.borisskert.springrequestvalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import javax.validation.ValidatorFactory;
+
+/**
+ * Selects the Bean Validation by the property {@code users.validation}: {@code reflective} (default, Hibernate Validator
+ * as auto-configured) or {@code precompiled} ({@link PrecompiledValidator} for {@link User}, {@link UsersEndpoint} and
+ * {@link ReactiveUsersEndpoint}). The precompiled validator replaces the default validator for request bodies, method
+ * validation and the {@link UserService}.
+ */
+@Configuration
+public class ValidationConfiguration {
+
+    /**
+     * Configures Hibernate Validator like the auto-configured default validator, which it replaces
+     */
+    @Bean
+    @ConditionalOnProperty(name = "users.validation", havingValue = "precompiled")
+    public static PrecompiledValidator precompiledValidator() {
+        LocalValidatorFactoryBean reflective = ValidationAutoConfiguration.defaultValidator();
+        reflective.afterPropertiesSet();
+
+        return new PrecompiledValidator(reflective.unwrap(ValidatorFactory.class), User.class, UsersEndpoint.class, ReactiveUsersEndpoint.class);
+    }
+}
@@ -0,0 +1,96 @@
+package de.borisskert.springrequestvalidation;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Outcome of {@link UserService#create(User)} and {@link UserService#insert(UserId, User)}. Invalid and conflicting
+ * users are reported as results instead of exceptions, so rejecting them costs no stack trace.
+ */
+public final class WriteResult {
+
+    public enum Status {
+        SAVED,
+        INVALID,
+        ID_EXISTS,
+        USERNAME_EXISTS,
+        EMAIL_EXISTS
+    }
+
+    public static final WriteResult ID_EXISTS = new WriteResult(Status.ID_EXISTS, null, List.of());
+    public static final WriteResult USERNAME_EXISTS = new WriteResult(Status.USERNAME_EXISTS, null, List.of());
+    public static final WriteResult EMAIL_EXISTS = new WriteResult(Status.EMAIL_EXISTS, null, List.of());
+
+    private final Status status;
+    private final UserId id;
+    private final List<String> errors;
+
+    private WriteResult(Status status, UserId id, List<String> errors) {
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSaved() {
+        return status == Status.SAVED;
+    }
+
+    /**
+     * @return the id of the saved user, or null if not saved
+     */
+    public UserId getId() {
+        return id;
+    }
+
+    /**
+     * @return the constraint violations of an invalid user as sorted "property: message" strings
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public static WriteResult saved(UserId id) {
+        return new WriteResult(Status.SAVED, id, List.of());
+    }
+
+    public static WriteResult invalid(List<String> errors) {
+        return new WriteResult(Status.INVALID, null, errors);
+    }
+
+    public static WriteResult of(UserId id, SaveResult result) {
+        switch (result) {
+            case SAVED:
+                return saved(id);
+            case ID_EXISTS:
+                return ID_EXISTS;
+            case EMAIL_EXISTS:
+                return EMAIL_EXISTS;
+            default:
+                return USERNAME_EXISTS;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WriteResult that = (WriteResult) o;
+        return status == that.status &&
+                Objects.equals(id, that.id) &&
+                errors.equals(that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, id, errors);
+    }
+
+    @Override
+    public String toString() {
+        return "WriteResult{status=" + status + ", id=" + id + ", errors=" + errors + "}";
+    }
+}
@@ -0,0 +1,44 @@
+package de.borisskert.features.model;
+
+import java.util.Map;
+import java.util.Objects;
+
+public class BatchItemResult {
+
+    public final int index;
+    public final String status;
+
+    public BatchItemResult(int index, String status) {
+        this.index = index;
+        this.status = status;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BatchItemResult that = (BatchItemResult) o;
+        return index == that.index &&
+                Objects.equals(status, that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, status);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "index=" + index +
+                ", status='" + status + '\'' +
+                '}';
+    }
+
+    public static BatchItemResult from(Map<String, String> entry) {
+        int index = Integer.parseInt(entry.get("Index"));
+        String status = entry.get("Status");
+
+        return new BatchItemResult(index, status);
+    }
+}
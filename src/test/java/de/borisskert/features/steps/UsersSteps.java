@@ -1,5 +1,6 @@
 package de.borisskert.features.steps;
 
+import de.borisskert.features.model.BatchItemResult;
 import de.borisskert.features.model.User;
 import de.borisskert.features.model.UserWithId;
 import de.borisskert.features.world.UsersClient;
@@ -12,6 +13,7 @@ import io.cucumber.java.en.When;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
 import java.util.Map;
 
 
@@ -80,6 +82,26 @@ public class UsersSteps {
         usersClient.insert(dataTable.id, dataTable.user);
     }
 
+    @When("I create users in a batch")
+    public void iCreateUsersInABatch(List<User> dataTable) {
+        usersClient.createAll(dataTable);
+    }
+
+    @Then("I should get following batch results")
+    public void iShouldGetFollowingBatchResults(List<BatchItemResult> dataTable) {
+        usersClient.batchResultsHaveBeenRetrieved(dataTable);
+    }
+
+    @When("I import users")
+    public void iImportUsers(List<User> dataTable) {
+        usersClient.importUsers(dataTable);
+    }
+
+    @Then("I should get following import results")
+    public void iShouldGetFollowingImportResults(List<BatchItemResult> dataTable) {
+        usersClient.importResultsHaveBeenRetrieved(dataTable);
+    }
+
     @DataTableType
     public User defineUser(Map<String, String> entry) {
         return User.from(entry);
@@ -89,4 +111,9 @@ public class UsersSteps {
     public UserWithId defineUserWithId(Map<String, String> entry) {
         return UserWithId.from(entry);
     }
+
+    @DataTableType
+    public BatchItemResult defineBatchItemResult(Map<String, String> entry) {
+        return BatchItemResult.from(entry);
+    }
 }
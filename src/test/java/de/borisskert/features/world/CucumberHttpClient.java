@@ -13,6 +13,7 @@ import org.springframework.util.MultiValueMap;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static io.cucumber.spring.CucumberTestContext.SCOPE_CUCUMBER_GLUE;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -90,6 +91,23 @@ public class CucumberHttpClient {
         }
     }
 
+    public <T> void verifyLatestBodyLines(List<T> expectedLines, Class<T> type) {
+        Optional<ResponseEntity<String>> maybeResponse = getLastResponse();
+
+        if (maybeResponse.isPresent()) {
+            ResponseEntity<String> response = maybeResponse.get();
+            String body = response.getBody();
+
+            List<T> convertedLines = body.lines()
+                    .map(line -> tryToConvertFromJson(line, type))
+                    .collect(Collectors.toList());
+
+            assertThat(convertedLines, is(equalTo(expectedLines)));
+        } else {
+            fail("Got no response");
+        }
+    }
+
     public void verifyLatestBody(String expectedBody) {
         Optional<ResponseEntity<String>> maybeResponse = getLastResponse();
 
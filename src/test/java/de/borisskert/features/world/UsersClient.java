@@ -1,10 +1,16 @@
 package de.borisskert.features.world;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.borisskert.features.model.BatchItemResult;
 import de.borisskert.features.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 import static io.cucumber.spring.CucumberTestContext.SCOPE_CUCUMBER_GLUE;
 import static org.springframework.http.HttpStatus.*;
 
@@ -13,12 +19,14 @@ import static org.springframework.http.HttpStatus.*;
 public class UsersClient {
 
     private final CucumberHttpClient httpClient;
+    private final ObjectMapper mapper;
 
     private String latestLocation;
 
     @Autowired
-    public UsersClient(CucumberHttpClient httpClient) {
+    public UsersClient(CucumberHttpClient httpClient, ObjectMapper mapper) {
         this.httpClient = httpClient;
+        this.mapper = mapper;
     }
 
     public void get(String userId) {
@@ -42,6 +50,32 @@ public class UsersClient {
         httpClient.post("/api/users/", user);
     }
 
+    public void createAll(List<User> users) {
+        httpClient.post("/api/users/batch", users);
+    }
+
+    public void batchResultsHaveBeenRetrieved(List<BatchItemResult> expectedResults) {
+        httpClient.verifyLatestStatus(OK);
+        httpClient.verifyLatestBody(expectedResults, new TypeReference<>() {
+        });
+    }
+
+    public void importUsers(List<User> users) {
+        StringBuilder body = new StringBuilder();
+
+        for (User user : users) {
+            body.append(toJson(user)).append('\n');
+        }
+
+        httpClient.addHeader("Content-Type", "application/x-ndjson");
+        httpClient.post("/api/users/import", body.toString());
+    }
+
+    public void importResultsHaveBeenRetrieved(List<BatchItemResult> expectedResults) {
+        httpClient.verifyLatestStatus(OK);
+        httpClient.verifyLatestBodyLines(expectedResults, BatchItemResult.class);
+    }
+
     public void insert(String id, User user) {
         httpClient.put("/api/users/" + id, user);
     }
@@ -54,4 +88,12 @@ public class UsersClient {
     public void userCreationWasConflicted() {
         httpClient.verifyLatestStatus(CONFLICT);
     }
+
+    private String toJson(User user) {
+        try {
+            return mapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
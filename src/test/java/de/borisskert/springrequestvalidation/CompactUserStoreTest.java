@@ -0,0 +1,80 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static de.borisskert.springrequestvalidation.MockUsers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the {@link UserRepositoryTest} on a {@link CompactUserStore}
+ */
+class CompactUserStoreTest extends UserRepositoryTest {
+
+    @Override
+    protected UserStore createStore() {
+        return new CompactUserStore();
+    }
+
+    @Test
+    public void shouldRemoveUser() throws Exception {
+        CompactUserStore store = new CompactUserStore();
+
+        store.putIfAbsent(USER_ONE_ID, USER_ONE);
+        store.putIfAbsent(USER_ID_TO_INSERT, USER_TO_INSERT);
+
+        store.remove(USER_ONE_ID, USER_ONE);
+
+        assertThat(store.get(USER_ONE_ID), is(nullValue()));
+        assertThat(store.findByUsername(USER_ONE.getUsername()), is(nullValue()));
+        assertThat(store.size(), is(equalTo(1)));
+
+        assertThat(store.putIfAbsent(USER_ONE_ID, USER_ONE), is(equalTo(SaveResult.SAVED)));
+        assertThat(store.get(USER_ONE_ID), is(equalTo(USER_ONE)));
+    }
+
+    @Test
+    public void shouldKeepUsernameOrderOfRemovedUsers() throws Exception {
+        CompactUserStore store = new CompactUserStore();
+
+        store.putIfAbsent(USER_ONE_ID, USER_ONE);
+        store.putIfAbsent(USER_ID_TO_INSERT, USER_TO_INSERT);
+        store.remove(USER_ONE_ID, USER_ONE);
+        store.putIfAbsent(NOT_EXISTING_ID, USER_ONE);
+
+        assertThat(store.findByUsernamePrefix(USER_ONE.getUsername(), 10), is(equalTo(Map.of(NOT_EXISTING_ID, USER_ONE))));
+
+        store.remove(NOT_EXISTING_ID, USER_ONE);
+
+        assertThat(store.findByUsernamePrefix(USER_ONE.getUsername(), 10).isEmpty(), is(true));
+        assertThat(store.findByUsernamePrefix(USER_TO_INSERT.getUsername(), 10), is(equalTo(Map.of(USER_ID_TO_INSERT, USER_TO_INSERT))));
+    }
+
+    @Test
+    public void shouldReleaseEmailOfRemovedUser() throws Exception {
+        CompactUserStore store = new CompactUserStore();
+
+        store.putIfAbsent(USER_ONE_ID, USER_ONE, true);
+        store.putIfAbsent(USER_ID_TO_INSERT, USER_TO_INSERT, true);
+        store.remove(USER_ONE_ID, USER_ONE);
+
+        User sameEmail = new User("other_username", " MY@FakeMail.com", LocalDate.of(1948, 6, 21));
+
+        assertThat(store.findByEmail(USER_ONE.getEmail()).isEmpty(), is(true));
+        assertThat(store.putIfAbsent(NOT_EXISTING_ID, sameEmail, true), is(equalTo(SaveResult.SAVED)));
+        assertThat(store.findByEmail(USER_ONE.getEmail()), is(equalTo(Map.of(NOT_EXISTING_ID, sameEmail))));
+    }
+
+    @Test
+    public void shouldNotRemoveOtherUser() throws Exception {
+        CompactUserStore store = new CompactUserStore();
+
+        store.putIfAbsent(USER_ONE_ID, USER_ONE);
+        store.remove(USER_ONE_ID, USER_TO_INSERT);
+
+        assertThat(store.get(USER_ONE_ID), is(equalTo(USER_ONE)));
+    }
+}
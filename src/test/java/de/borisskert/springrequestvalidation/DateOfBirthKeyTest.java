@@ -0,0 +1,70 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Proves that {@link DateOfBirthKey} orders like dates of birth and ids, and parses the cursors it prints
+ */
+class DateOfBirthKeyTest {
+
+    private static final Comparator<User> BY_DATE_OF_BIRTH = Comparator.comparing(User::getDateOfBirth);
+
+    @Property(tries = 10_000)
+    void shouldParseCursor(@ForAll("ids") UserId id, @ForAll("users") User user) {
+        DateOfBirthKey key = DateOfBirthKey.of(id, user);
+
+        assertThat(DateOfBirthKey.parse(key.toString()), is(equalTo(key)));
+        assertThat(key.toString(), is(equalTo(user.getDateOfBirth() + "_" + id)));
+    }
+
+    @Property(tries = 10_000)
+    void shouldOrderByDateOfBirthAndId(
+            @ForAll("ids") UserId firstId, @ForAll("users") User first,
+            @ForAll("ids") UserId secondId, @ForAll("users") User second
+    ) {
+        int expected = BY_DATE_OF_BIRTH.compare(first, second);
+        if (expected == 0) {
+            expected = firstId.compareTo(secondId);
+        }
+
+        int actual = DateOfBirthKey.of(firstId, first).compareTo(DateOfBirthKey.of(secondId, second));
+
+        assertThat(Integer.signum(actual), is(equalTo(Integer.signum(expected))));
+    }
+
+    @Property
+    void shouldOrderFirstKeyOfDayBeforeUsersBornThatDay(@ForAll("ids") UserId id, @ForAll("users") User user) {
+        DateOfBirthKey first = DateOfBirthKey.first(user.getDateOfBirth().toEpochDay());
+
+        assertThat(first, is(lessThanOrEqualTo(DateOfBirthKey.of(id, user))));
+        assertThat(first, is(greaterThan(DateOfBirthKey.of(id, new User("x", "x", user.getDateOfBirth().minusDays(1))))));
+    }
+
+    @Example
+    void shouldNotParseInvalidCursors() {
+        assertThrows(IllegalArgumentException.class, () -> DateOfBirthKey.parse("6e9f59fa-cc85-4096-9165-7a3661fd6bc0"));
+        assertThrows(IllegalArgumentException.class, () -> DateOfBirthKey.parse("1990-10-03_444"));
+        assertThrows(IllegalArgumentException.class, () -> DateOfBirthKey.parse("1990-13-03_6e9f59fa-cc85-4096-9165-7a3661fd6bc0"));
+        assertThrows(IllegalArgumentException.class, () -> DateOfBirthKey.parse("_6e9f59fa-cc85-4096-9165-7a3661fd6bc0"));
+    }
+
+    @Provide
+    Arbitrary<UserId> ids() {
+        return Arbitraries.randomValue(random -> UserId.of(new UUID(random.nextLong(), random.nextLong())));
+    }
+
+    @Provide
+    Arbitrary<User> users() {
+        return Arbitraries.integers()
+                .between(-40_000, 20_000)
+                .map(epochDay -> new User("x", "x", LocalDate.ofEpochDay(epochDay)));
+    }
+}
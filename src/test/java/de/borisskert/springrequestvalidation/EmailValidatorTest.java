@@ -0,0 +1,119 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Proves that the {@link EmailValidator} agrees with the regular expression based validator of Hibernate Validator
+ */
+class EmailValidatorTest {
+
+    private static final List<String> LOCAL_PART_TOKENS = List.of(
+            "a", "Z", "0", "-", ".", "..", "\"", "\\", "\\\\", "\\\"", " ", "@", "(", "[", "é", "­", "😀",
+            "\ud83d", "!#$%&'*+/=?^_`{|}~", "\t"
+    );
+
+    private static final List<String> DOMAIN_TOKENS = List.of(
+            "a", "Z", "0", "-", "--", ".", "[", "]", "IPv6:", "ipv6:", ":", "::", "ffff", "FFFF:", "fe80:", "%", "eth0",
+            "1", "12", "255", "256", "099", "abcd", "abcde", "é", "­", "。", "😀", "\ud83d", "_", "@",
+            "xn--", "a".repeat(62), "1.2.3.4", "1:2:3:4", "5:6:7:8", "::1.2.3.4"
+    );
+
+    private final org.hibernate.validator.internal.constraintvalidators.bv.EmailValidator hibernate =
+            new org.hibernate.validator.internal.constraintvalidators.bv.EmailValidator();
+
+    @Property
+    void shouldAgreeOnArbitraryStrings(@ForAll String value) {
+        assertAgreement(value);
+    }
+
+    @Property(tries = 20_000)
+    void shouldAgreeOnComposedAddresses(@ForAll("localParts") String localPart, @ForAll("domains") String domain) {
+        assertAgreement(localPart + "@" + domain);
+    }
+
+    @Property(tries = 10_000)
+    void shouldAgreeOnIpAddressLiterals(@ForAll("localParts") String localPart, @ForAll("ipAddresses") String address) {
+        assertAgreement(localPart + "@[" + address + "]");
+        assertAgreement(localPart + "@[IPv6:" + address + "]");
+    }
+
+    @Property
+    void shouldAgreeAroundLengthLimits(@ForAll("lengths") int localLength, @ForAll("lengths") int labelLength) {
+        String label = "b".repeat(labelLength);
+
+        assertAgreement("a".repeat(localLength) + "@" + label);
+        assertAgreement("a@" + String.join(".", label, label, label, label, label));
+        assertAgreement("a@é" + label);
+    }
+
+    @Example
+    void shouldAgreeOnExamples() {
+        for (String value : List.of(
+                "", "@", "a@b", "a@b.", "a.@b", ".a@b", "a..b@c", "\"\"@b", "\"a b\"@c", "\"a\"b@c", "\"a\".b@c",
+                "\"a\\\"b\"@c", "\"a\\b\"@c", "\"a@b\"@c", "a@-b", "a@b-", "a@b--c", "a@[1.2.3.4]", "a@[1.2.3]",
+                "a@[IPv6:::1]", "a@[IPv6:1:2:3:4:5:6:7:8]", "a@[IPv6:1:2:3:4:5:6:7:8:9]", "a@[IPv6:1::2::3]",
+                "a@[IPv6:fe80::1%eth0]", "a@[IPv6:::ffff:0:1.2.3.4]", "a@[IPv6:::ffff:256.2.3.4]", "a@[IPv6:1:2::1.2.3.4]",
+                "a@[IPv6:1:2:3:4:5::1.2.3.4]", "my@fakemail.com", MockUsers.USER_ONE.getEmail(), "not_a_email"
+        )) {
+            assertAgreement(value);
+        }
+    }
+
+    @Example
+    void shouldRejectTooLongAddresses() {
+        assertThat(EmailValidator.isEmail("a".repeat(EmailValidator.MAX_LENGTH) + "@b"), is(false));
+        assertThat(EmailValidator.isEmail("a@" + "b.".repeat(1_000) + "c"), is(false));
+    }
+
+    @Example
+    void shouldBeRegisteredForEmailConstraint() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        Set<ConstraintViolation<User>> violations = validator.validate(new User("a", "a@b.", LocalDate.of(1990, 1, 1)));
+
+        assertThat(violations, hasSize(1));
+        assertThat(violations.iterator().next().getConstraintDescriptor().getConstraintValidatorClasses(),
+                contains(EmailValidator.class));
+    }
+
+    @Provide
+    Arbitrary<String> localParts() {
+        return tokens(LOCAL_PART_TOKENS, 8);
+    }
+
+    @Provide
+    Arbitrary<String> domains() {
+        return tokens(DOMAIN_TOKENS, 8);
+    }
+
+    @Provide
+    Arbitrary<String> ipAddresses() {
+        return tokens(List.of("1", "0", "00", "0000", "12345", "255", "256", "199", "099", "ffff", "FFFF", "fe80", "g",
+                ":", ":", "::", ".", ".", "%", "eth0", "a"), 12);
+    }
+
+    @Provide
+    Arbitrary<Integer> lengths() {
+        return Arbitraries.of(0, 1, 62, 63, 64, 65, 100, 250, 254, 255, 256);
+    }
+
+    private static Arbitrary<String> tokens(List<String> tokens, int maxSize) {
+        return Arbitraries.of(tokens)
+                .list()
+                .ofMaxSize(maxSize)
+                .map(list -> String.join("", list));
+    }
+
+    private void assertAgreement(String value) {
+        assertThat(value, EmailValidator.isEmail(value), is(equalTo(hibernate.isValid(value, null))));
+    }
+}
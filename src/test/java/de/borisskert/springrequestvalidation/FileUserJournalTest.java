@@ -0,0 +1,223 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static de.borisskert.springrequestvalidation.MockUsers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class FileUserJournalTest {
+
+    private Path path;
+    private Path snapshot;
+
+    @BeforeEach
+    public void setup(@TempDir Path directory) {
+        path = directory.resolve("users.journal");
+        snapshot = directory.resolve("users.snapshot");
+    }
+
+    @Nested
+    class Replay {
+        @Test
+        public void shouldReplayNothingFromEmptyJournal() throws Exception {
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                assertThat(replay(journal), is(equalTo(Map.of())));
+            }
+        }
+
+        @Test
+        public void shouldReplayAppendedUsersInOrder() throws Exception {
+            Map<UserId, User> appended = new LinkedHashMap<>();
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                List<CompletableFuture<Void>> appends = new ArrayList<>();
+
+                for (int i = 0; i < 1000; i++) {
+                    UserId id = UserId.of(UUID.randomUUID());
+                    User user = new User("user_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3).minusDays(i));
+
+                    appended.put(id, user);
+                    appends.add(journal.append(id, user));
+                }
+
+                appends.forEach(CompletableFuture::join);
+            }
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                assertThat(new ArrayList<>(replay(journal).entrySet()), is(equalTo(new ArrayList<>(appended.entrySet()))));
+            }
+        }
+
+        @Test
+        public void shouldTruncateTornRecord() throws Exception {
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                journal.append(USER_ONE_ID, USER_ONE).join();
+                journal.append(USER_ID_TO_INSERT, USER_TO_INSERT).join();
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 3);
+            }
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                assertThat(replay(journal), is(equalTo(Map.of(USER_ONE_ID, USER_ONE))));
+                journal.append(NOT_EXISTING_ID, USER_TO_CREATE).join();
+            }
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                assertThat(replay(journal), is(equalTo(Map.of(USER_ONE_ID, USER_ONE, NOT_EXISTING_ID, USER_TO_CREATE))));
+            }
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        public void shouldCompleteEveryAppendWhileClosingConcurrently() throws Exception {
+            for (int round = 0; round < 20; round++) {
+                FileUserJournal journal = new FileUserJournal(path);
+                Queue<CompletableFuture<Void>> appends = new ConcurrentLinkedQueue<>();
+                ExecutorService appenders = Executors.newFixedThreadPool(4);
+                CountDownLatch appending = new CountDownLatch(4);
+
+                for (int appender = 0; appender < 4; appender++) {
+                    appenders.execute(() -> {
+                        appending.countDown();
+
+                        for (int i = 0; i < 2_000; i++) {
+                            CompletableFuture<Void> append = journal.append(UserId.of(UUID.randomUUID()), USER_ONE);
+                            appends.add(append);
+
+                            if (append.isCompletedExceptionally()) {
+                                return;
+                            }
+                        }
+                    });
+                }
+
+                appending.await();
+                journal.close();
+                appenders.shutdown();
+                assertThat(appenders.awaitTermination(10, TimeUnit.SECONDS), is(true));
+
+                CompletableFuture.allOf(appends.toArray(new CompletableFuture<?>[0]))
+                        .handle((ignored, failure) -> null)
+                        .get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        @Test
+        public void shouldRejectAppendsAfterClose() throws Exception {
+            FileUserJournal journal = new FileUserJournal(path);
+            journal.close();
+
+            CompletableFuture<Void> append = journal.append(USER_ONE_ID, USER_ONE);
+
+            assertThat(append.isCompletedExceptionally(), is(true));
+        }
+    }
+
+    @Nested
+    class Repository {
+        @Test
+        public void shouldRestoreSavedUsers() throws Exception {
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal);
+
+                repository.save(USER_ONE_ID, USER_ONE);
+                repository.saveAll(Map.of(USER_ID_TO_INSERT, USER_TO_INSERT));
+                repository.save(NOT_EXISTING_ID, USER_ONE);
+            }
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal);
+
+                assertThat(repository.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+                assertThat(repository.findByUsername(USER_TO_INSERT.getUsername()).get(), is(equalTo(USER_TO_INSERT)));
+                assertThat(repository.getById(NOT_EXISTING_ID).isPresent(), is(false));
+            }
+        }
+
+        @Test
+        public void shouldReplayJournalAfterSnapshotOnly() throws Exception {
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal, snapshot, false);
+
+                repository.save(USER_ONE_ID, USER_ONE);
+                UserSnapshot.write(snapshot, repository);
+                repository.save(USER_ID_TO_INSERT, USER_TO_INSERT);
+            }
+
+            Map<UserId, User> replayed = new LinkedHashMap<>();
+
+            try (FileUserJournal journal = new FileUserJournal(path) {
+                @Override
+                public synchronized void replay(long from, BiConsumer<UserId, User> consumer) {
+                    super.replay(from, replayed::put);
+                    replayed.forEach(consumer);
+                }
+            }) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal, snapshot, false);
+
+                assertThat(repository.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+                assertThat(repository.getById(USER_ID_TO_INSERT).get(), is(equalTo(USER_TO_INSERT)));
+                assertThat(replayed, is(equalTo(Map.of(USER_ID_TO_INSERT, USER_TO_INSERT))));
+            }
+        }
+
+        @Test
+        public void shouldReplayWholeJournalIfShorterThanSnapshotPosition() throws Exception {
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal, snapshot, false);
+
+                repository.save(USER_ONE_ID, USER_ONE);
+                repository.save(NOT_EXISTING_ID, USER_TO_CREATE);
+                UserSnapshot.write(snapshot, repository);
+            }
+
+            Files.delete(path);
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                journal.append(USER_ID_TO_INSERT, USER_TO_INSERT).get();
+            }
+
+            try (FileUserJournal journal = new FileUserJournal(path)) {
+                UserRepository repository = new UserRepository(new HeapUserStore(), journal, snapshot, false);
+
+                assertThat(repository.size(), is(3));
+                assertThat(repository.getById(USER_ID_TO_INSERT).get(), is(equalTo(USER_TO_INSERT)));
+            }
+        }
+    }
+
+    private Map<UserId, User> replay(FileUserJournal journal) {
+        Map<UserId, User> replayed = new LinkedHashMap<>();
+        journal.replay(replayed::put);
+
+        return replayed;
+    }
+}
@@ -0,0 +1,87 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IdGeneratorTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    public static void setup() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Nested
+    class Random {
+        private final IdGenerator idGenerator = new RandomIdGenerator();
+
+        @Test
+        public void shouldGenerateValidUuids() throws Exception {
+            for (int i = 0; i < 1000; i++) {
+                assertThat(validator.validate(new Id(idGenerator.newId().toString())), is(empty()));
+            }
+        }
+    }
+
+    @Nested
+    class TimeOrdered {
+        private final IdGenerator idGenerator = new TimeOrderedIdGenerator();
+
+        @Test
+        public void shouldGenerateValidUuids() throws Exception {
+            for (int i = 0; i < 1000; i++) {
+                assertThat(validator.validate(new Id(idGenerator.newId().toString())), is(empty()));
+            }
+        }
+
+        @Test
+        public void shouldGenerateVersion7() throws Exception {
+            UUID uuid = UUID.fromString(idGenerator.newId().toString());
+
+            assertThat(uuid.version(), is(equalTo(7)));
+            assertThat(uuid.variant(), is(equalTo(2)));
+        }
+
+        @Test
+        public void shouldGenerateIdsOrderedByTime() throws Exception {
+            List<String> ids = new ArrayList<>();
+
+            for (int i = 0; i < 3; i++) {
+                ids.add(idGenerator.newId().toString());
+                Thread.sleep(2);
+            }
+
+            assertThat(ids.get(0), is(lessThan(ids.get(1))));
+            assertThat(ids.get(1), is(lessThan(ids.get(2))));
+        }
+    }
+
+    private static class Id {
+        @Uuid
+        private final String value;
+
+        private Id(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -4,14 +4,21 @@ import java.time.LocalDate;
 
 public class MockUsers {
 
-    public static final String USER_ONE_ID = "6e9f59fa-cc85-4096-9165-7a3661fd6bc0";
+    public static final UserId USER_ONE_ID = UserId.parse("6e9f59fa-cc85-4096-9165-7a3661fd6bc0");
     public static final User USER_ONE = new User("my_username", "my@fakemail.com", LocalDate.of(1990, 10, 3));
     public static final User USER_TO_CREATE = new User("created_user", "my_other@fakemail.com", LocalDate.of(1945, 5, 8));
 
-    public static final String USER_ID_TO_INSERT = "2884a717-5a17-49fa-84cc-d4321207c7f9";
+    public static final UserId USER_ID_TO_INSERT = UserId.parse("2884a717-5a17-49fa-84cc-d4321207c7f9");
     public static final User USER_TO_INSERT = new User("user_to_insert", "user_to_insert@fakemail.com", LocalDate.of(1948, 6, 21));
 
-    public static final String NOT_EXISTING_ID = "9b686071-2973-4001-b0f9-6267422d45f7";
+    public static final UserId TIME_ORDERED_ID = UserId.parse("01927a4e-3b1c-7d2e-9f3a-5b6c7d8e9f01");
+    public static final User TIME_ORDERED_USER = new User("time_ordered", "time_ordered@fakemail.com", LocalDate.of(1989, 11, 9));
+
+    public static final UserId CREATED_ID = UserId.parse("3f1c2a64-8d5e-4b7a-a1c9-0e2d4f6b8a13");
+    public static final UserId SECOND_CREATED_ID = UserId.parse("c7b1e5d2-46a8-4f3e-9b20-71d5a8c3e904");
+
+    public static final UserId NOT_EXISTING_ID = UserId.parse("9b686071-2973-4001-b0f9-6267422d45f7");
 
     public static final User USER_WITH_DUPLICATE_USERNAME = new User("duplicate", "my@fakemail.com", LocalDate.of(1962, 7, 8));
+    public static final User USER_WITH_DUPLICATE_EMAIL = new User("duplicate_email", "Taken@FakeMail.com", LocalDate.of(1962, 7, 8));
 }
@@ -0,0 +1,25 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.validation.Validator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+
+/**
+ * Runs the {@link UsersEndpointTest} with the {@link PrecompiledValidator}
+ */
+@TestPropertySource(properties = "users.validation=precompiled")
+class PrecompiledUsersEndpointTest extends UsersEndpointTest {
+
+    @Autowired
+    private Validator validator;
+
+    @Test
+    public void shouldUsePrecompiledValidator() throws Exception {
+        assertThat(validator, instanceOf(PrecompiledValidator.class));
+    }
+}
@@ -0,0 +1,182 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Proves that the {@link PrecompiledValidator} reports the same violations as Hibernate Validator
+ */
+class PrecompiledValidatorTest {
+
+    private static final ValidatorFactory FACTORY = Validation.buildDefaultValidatorFactory();
+
+    private final Validator reflective = FACTORY.getValidator();
+    private final PrecompiledValidator precompiled = new PrecompiledValidator(FACTORY, User.class, UsersEndpoint.class);
+
+    private final UsersEndpoint endpoint = new UsersEndpoint(null, null, null, 0);
+
+    @Property(tries = 10_000)
+    void shouldValidateUsersAlike(@ForAll("users") User user) {
+        assertThat(describe(precompiled.validate(user)), is(equalTo(describe(reflective.validate(user)))));
+    }
+
+    @Property(tries = 10_000)
+    void shouldValidateIdsAlike(@ForAll("ids") String id) throws Exception {
+        assertParametersValidatedAlike(method("getUserById", String.class, WebRequest.class), id, null);
+    }
+
+    @Property
+    void shouldValidateUsernamesAlike(@ForAll("texts") String username) throws Exception {
+        assertParametersValidatedAlike(method("findByUsername", String.class, WebRequest.class), username, null);
+    }
+
+    @Property
+    void shouldValidateListParametersAlike(@ForAll("ids") String after, @ForAll @IntRange(min = -2, max = 1002) int limit) throws Exception {
+        assertParametersValidatedAlike(method("list", String.class, int.class), after, limit);
+    }
+
+    @Property
+    void shouldValidateDateOfBirthCursorsAlike(@ForAll("cursors") String after, @ForAll @IntRange(min = -2, max = 1002) int limit) throws Exception {
+        Method method = method("findByDateOfBirth", LocalDate.class, LocalDate.class, String.class, int.class);
+        assertParametersValidatedAlike(method, LocalDate.of(1990, 1, 1), LocalDate.of(2000, 1, 1), after, limit);
+    }
+
+    @Property
+    void shouldValidateLookupsAlike(@ForAll @IntRange(max = 1002) int size) throws Exception {
+        List<String> ids = size == 1002 ? null : Collections.nCopies(size, "6e9f59fa-cc85-4096-9165-7a3661fd6bc0");
+        assertParametersValidatedAlike(method("lookup", List.class), ids);
+    }
+
+    @Property
+    void shouldValidateEmailsAlike(@ForAll("emails") String email) throws Exception {
+        assertParametersValidatedAlike(method("findByEmail", String.class), email);
+    }
+
+    @Property
+    void shouldValidatePrefixParametersAlike(@ForAll("texts") String prefix, @ForAll @IntRange(min = -2, max = 1002) int limit) throws Exception {
+        assertParametersValidatedAlike(method("findByUsernamePrefix", String.class, int.class), prefix, limit);
+    }
+
+    @Property(tries = 10_000)
+    void shouldValidateCascadedUsersAlike(@ForAll("ids") String id, @ForAll("users") User user) throws Exception {
+        assertParametersValidatedAlike(method("insert", String.class, User.class), id, user);
+    }
+
+    /**
+     * Spring MVC validates {@link javax.validation.Valid} request bodies with a null hint
+     */
+    @Property
+    void shouldRejectFieldsLikeSpringAdapter(@ForAll("users") User user) {
+        BindingResult expected = new BeanPropertyBindingResult(user, "user");
+        new SpringValidatorAdapter(reflective).validate(user, expected, (Object) null);
+
+        BindingResult actual = new BeanPropertyBindingResult(user, "user");
+        precompiled.validate(user, actual, (Object) null);
+
+        assertThat(describe(actual), is(equalTo(describe(expected))));
+    }
+
+    @Example
+    void shouldReportViolationsOfInvalidUser() {
+        Set<ConstraintViolation<User>> violations = precompiled.validate(new User("", "not_a_email", null));
+
+        assertThat(describe(violations), containsInAnyOrder(
+                "username: must not be empty (NotEmpty, )",
+                "email: must be a well-formed email address (Email, not_a_email)",
+                "dateOfBirth: must not be null (NotNull, null)"
+        ));
+    }
+
+    @Example
+    void shouldReportNoViolationsOfValidUser() {
+        assertThat(precompiled.validate(MockUsers.USER_ONE), is(empty()));
+    }
+
+    @Provide
+    Arbitrary<User> users() {
+        Arbitrary<LocalDate> dates = Arbitraries.integers()
+                .between(-3, 3)
+                .map(days -> LocalDate.now().plusDays(days))
+                .injectNull(0.2);
+
+        return Combinators.combine(texts(), emails(), dates).as(User::new);
+    }
+
+    @Provide
+    Arbitrary<String> ids() {
+        Arbitrary<String> uuids = Arbitraries.randomValue(random -> new UUID(random.nextLong(), random.nextLong()).toString());
+        return Arbitraries.oneOf(uuids, texts());
+    }
+
+    @Provide
+    Arbitrary<String> cursors() {
+        Arbitrary<String> dates = Arbitraries.integers().between(1, 31).map(day -> "1990-10-" + (day < 10 ? "0" : "") + day);
+        return Arbitraries.oneOf(ids(), Combinators.combine(dates, ids()).as((date, id) -> date + "_" + id));
+    }
+
+    @Provide
+    Arbitrary<String> texts() {
+        return Arbitraries.strings()
+                .withChars("ab_ü@.")
+                .ofMaxLength(14)
+                .injectNull(0.1);
+    }
+
+    @Provide
+    Arbitrary<String> emails() {
+        Arbitrary<String> parts = Arbitraries.strings().withChars("ab.-_").ofMaxLength(6);
+
+        return Arbitraries.oneOf(
+                texts(),
+                Combinators.combine(parts, parts).as((local, domain) -> local + "@" + domain)
+        );
+    }
+
+    private void assertParametersValidatedAlike(Method method, Object... arguments) {
+        Set<String> expected = describe(reflective.forExecutables().validateParameters(endpoint, method, arguments));
+        Set<String> actual = describe(precompiled.forExecutables().validateParameters(endpoint, method, arguments));
+
+        assertThat(actual, is(equalTo(expected)));
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return UsersEndpoint.class.getMethod(name, parameterTypes);
+    }
+
+    private static Set<String> describe(BindingResult result) {
+        return result.getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage() + " " + Arrays.toString(error.getCodes())
+                        + " " + Arrays.deepToString(error.getArguments()) + " " + error.getRejectedValue())
+                .collect(Collectors.toSet());
+    }
+
+    private static <T> Set<String> describe(Set<ConstraintViolation<T>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage() + " ("
+                        + violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName() + ", "
+                        + violation.getInvalidValue() + ")")
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,91 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Runs the {@link UsersEndpointTest} against the {@link ReactiveUsersEndpoint} on Netty
+ */
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+class ReactiveUsersEndpointTest extends UsersEndpointTest {
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void shouldRunOnNetty() throws Exception {
+        assertThat(context.getWebServer(), instanceOf(NettyWebServer.class));
+    }
+
+    /**
+     * Netty's event loop threads are named {@code reactor-http-nio-N}, or {@code reactor-http-epoll-N} on Linux
+     */
+    @Test
+    public void shouldNotReadManyUsersOnEventLoop() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Answer<Object> recordThread = invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return invocation.getMethod().getReturnType() == UserStats.class ? new UserStats(0, Map.of(), Map.of(), 0) : Map.of();
+        };
+
+        doAnswer(recordThread).when(userRepository).list(any(), anyInt());
+        doAnswer(recordThread).when(userRepository).getAll(any());
+        doAnswer(recordThread).when(userRepository).findByEmail(any());
+        doAnswer(recordThread).when(userRepository).findByUsernamePrefix(any(), anyInt());
+        doAnswer(recordThread).when(userRepository).findByDateOfBirth(anyLong(), anyLong(), any(), anyInt());
+        doAnswer(recordThread).when(userRepository).stats();
+
+        restTemplate.getForEntity("/api/users?limit=10", String.class);
+        restTemplate.postForEntity("/api/users/lookup", List.of(UUID.randomUUID().toString()), String.class);
+        restTemplate.getForEntity("/api/users?email=my@fakemail.com", String.class);
+        restTemplate.getForEntity("/api/users?usernamePrefix=my_&limit=10", String.class);
+        restTemplate.getForEntity("/api/users?bornAfter=1900-01-01&bornBefore=2000-01-01&limit=10", String.class);
+        restTemplate.getForEntity("/api/users/stats", String.class);
+
+        assertThat(threads, is(not(empty())));
+        assertThat(threads, everyItem(not(startsWith("reactor-http-"))));
+    }
+
+    /**
+     * Spring Boot configures the rest template builder of servlet applications only, which the test rest template
+     * needs to read users with the object mapper of the application
+     */
+    @TestConfiguration
+    static class RestTemplateConfiguration {
+        @Bean
+        public RestTemplateBuilder restTemplateBuilder(ObjectMapper mapper) {
+            return new RestTemplateBuilder()
+                    .messageConverters(new HttpMessageConverters(new MappingJackson2HttpMessageConverter(mapper)).getConverters());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RequestTracesTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private RequestTraces traces;
+    private RequestTrace trace;
+    private int getUserById;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        traces = new RequestTraces(4);
+        trace = RequestTrace.current();
+        getUserById = traces.endpointIndex(UsersEndpoint.class.getMethod("getUserById", String.class, WebRequest.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (trace.isActive()) {
+            trace.end();
+        }
+    }
+
+    @Test
+    public void shouldChargeNestedPhasesToTheInnermostOnly() throws Exception {
+        trace.begin(getUserById);
+
+        RequestTrace.enter(RequestPhase.SERVICE);
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+        Thread.sleep(20);
+        RequestTrace.exit();
+        RequestTrace.exit();
+
+        trace.end();
+
+        assertThat(trace.phaseNanos(RequestPhase.REPOSITORY), is(greaterThanOrEqualTo(20 * MILLIS)));
+        assertThat(trace.phaseNanos(RequestPhase.SERVICE), is(lessThan(20 * MILLIS)));
+        assertThat(trace.totalNanos(), is(greaterThanOrEqualTo(trace.phaseNanos(RequestPhase.REPOSITORY))));
+    }
+
+    @Test
+    public void shouldChargePhasesLeftOpenUntilTheEnd() throws Exception {
+        trace.begin(getUserById);
+
+        RequestTrace.enter(RequestPhase.BINDING);
+        Thread.sleep(20);
+
+        trace.end();
+
+        assertThat(trace.phaseNanos(RequestPhase.BINDING), is(greaterThanOrEqualTo(20 * MILLIS)));
+        assertThat(trace.isActive(), is(false));
+    }
+
+    @Test
+    public void shouldIgnorePhasesOutsideOfRequests() throws Exception {
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+        RequestTrace.exit();
+
+        assertThat(trace.isActive(), is(false));
+        assertThat(traces.slowest(10), is(empty()));
+    }
+
+    @Test
+    public void shouldNotKnowOtherMethods() throws Exception {
+        assertThat(traces.endpointIndex(Object.class.getMethod("toString")), is(equalTo(-1)));
+    }
+
+    @Test
+    public void shouldRoundCapacityUpToPowerOfTwo() throws Exception {
+        assertThat(new RequestTraces(1).capacity(), is(equalTo(1)));
+        assertThat(new RequestTraces(1000).capacity(), is(equalTo(1024)));
+        assertThat(new RequestTraces(1024).capacity(), is(equalTo(1024)));
+    }
+
+    @Test
+    public void shouldListSlowestOfMostRecentRequests() throws Exception {
+        for (int sleep : new int[]{100, 1, 40, 2, 20, 3}) {
+            record(sleep, 200 + sleep);
+        }
+
+        List<TracedRequest> slowest = traces.slowest(2);
+
+        assertThat(statusesOf(slowest), contains(240, 220));
+        assertThat(slowest.get(0).getEndpoint(), is(equalTo("getUserById")));
+        assertThat(slowest.get(0).phaseNanos(RequestPhase.REPOSITORY), is(greaterThanOrEqualTo(40 * MILLIS)));
+        assertThat(slowest.get(0).getPhaseMicros().get("OTHER"), is(greaterThanOrEqualTo(0.0)));
+        assertThat(traces.slowest(10), hasSize(4));
+    }
+
+    @Test
+    public void shouldKeepConsistentTracesWhileRecordingConcurrently() throws Exception {
+        RequestTraces traces = new RequestTraces(64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<?>[] writers = new Future<?>[4];
+
+            for (int writer = 0; writer < writers.length; writer++) {
+                int status = 200 + writer;
+
+                writers[writer] = executor.submit(() -> {
+                    RequestTrace trace = RequestTrace.current();
+
+                    for (int request = 0; request < 10_000; request++) {
+                        trace.begin(getUserById);
+                        RequestTrace.enter(RequestPhase.SERVICE);
+                        RequestTrace.exit();
+                        trace.end();
+                        traces.record(trace, status);
+                    }
+                });
+            }
+
+            while (!allDone(writers)) {
+                for (TracedRequest request : traces.slowest(64)) {
+                    assertThat(request.getEndpoint(), is(equalTo("getUserById")));
+                    assertThat(request.getStatus(), is(both(greaterThanOrEqualTo(200)).and(lessThan(204))));
+                    assertThat(request.phaseNanos(RequestPhase.SERVICE), is(lessThanOrEqualTo(request.totalNanos())));
+                }
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(traces.slowest(100), hasSize(64));
+    }
+
+    private void record(int sleepMillis, int status) throws InterruptedException {
+        trace.begin(getUserById);
+        RequestTrace.enter(RequestPhase.REPOSITORY);
+        Thread.sleep(sleepMillis);
+        RequestTrace.exit();
+        trace.end();
+
+        traces.record(trace, status);
+    }
+
+    private static List<Integer> statusesOf(List<TracedRequest> requests) {
+        return requests.stream()
+                .map(TracedRequest::getStatus)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean allDone(Future<?>[] futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class UserETagTest {
+
+    @Example
+    public void shouldBeSixteenHexDigitsInQuotes() throws Exception {
+        String eTag = UserETag.of(new User("my_username", "my@fakemail.com", LocalDate.of(1990, 10, 3)));
+
+        assertThat(eTag.matches("\"[0-9a-f]{16}\""), is(true));
+    }
+
+    @Property
+    public void shouldTagEqualUsersEqually(@ForAll("users") User user) throws Exception {
+        User copy = new User(user.getUsername(), user.getEmail(), user.getDateOfBirth());
+
+        assertThat(UserETag.of(copy), is(equalTo(UserETag.of(user))));
+    }
+
+    @Property
+    public void shouldTagDifferentUsersDifferently(@ForAll("users") User user, @ForAll("users") User other) throws Exception {
+        Assume.that(!user.equals(other));
+
+        assertThat(UserETag.of(other), is(not(equalTo(UserETag.of(user)))));
+    }
+
+    @Example
+    public void shouldNotShiftCharactersBetweenFields() throws Exception {
+        LocalDate dateOfBirth = LocalDate.of(1990, 10, 3);
+
+        assertThat(
+                UserETag.of(new User("ab", "c@fakemail.com", dateOfBirth)),
+                is(not(equalTo(UserETag.of(new User("a", "bc@fakemail.com", dateOfBirth)))))
+        );
+    }
+
+    @Provide
+    Arbitrary<User> users() {
+        Arbitrary<String> usernames = Arbitraries.strings().alpha().ofMinLength(1).ofMaxLength(12);
+        Arbitrary<String> emails = Arbitraries.strings().alpha().ofMinLength(1).ofMaxLength(8).map(local -> local + "@fakemail.com");
+        Arbitrary<LocalDate> datesOfBirth = Arbitraries.longs().between(-20_000, 18_000).map(LocalDate::ofEpochDay);
+
+        return Combinators.combine(usernames, emails, datesOfBirth).as(User::new);
+    }
+}
@@ -0,0 +1,68 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class UserIdMapTest {
+
+    private UserIdMap<String> map;
+
+    @BeforeEach
+    public void setup() {
+        map = new UserIdMap<>();
+    }
+
+    @Test
+    public void shouldNotReplaceExistingValue() throws Exception {
+        UserId id = UserId.of(UUID.randomUUID());
+
+        assertThat(map.putIfAbsent(id, "first"), is(nullValue()));
+        assertThat(map.putIfAbsent(id, "second"), is(equalTo("first")));
+        assertThat(map.get(id), is(equalTo("first")));
+    }
+
+    @Test
+    public void shouldRemoveOnlyEqualValue() throws Exception {
+        UserId id = UserId.of(UUID.randomUUID());
+        map.putIfAbsent(id, "value");
+
+        assertThat(map.remove(id, "other"), is(false));
+        assertThat(map.remove(id, "value"), is(true));
+        assertThat(map.get(id), is(nullValue()));
+        assertThat(map.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void shouldKeepRemainingIdsReachableAfterRemovals() throws Exception {
+        Map<UserId, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            UserId id = UserId.of(UUID.randomUUID());
+            map.putIfAbsent(id, "value_" + i);
+            expected.put(id, "value_" + i);
+        }
+
+        Iterator<Map.Entry<UserId, String>> entries = expected.entrySet().iterator();
+
+        for (int i = 0; entries.hasNext(); i++) {
+            Map.Entry<UserId, String> entry = entries.next();
+
+            if (i % 3 == 0) {
+                assertThat(map.remove(entry.getKey(), entry.getValue()), is(true));
+                entries.remove();
+            }
+        }
+
+        Map<UserId, String> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+
+        assertThat(iterated, is(equalTo(expected)));
+        assertThat(map.size(), is(equalTo(expected.size())));
+        expected.forEach((id, value) -> assertThat(map.get(id), is(equalTo(value))));
+    }
+}
@@ -0,0 +1,43 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Proves that {@link UserId} parses, prints and orders like {@link UUID} strings
+ */
+class UserIdTest {
+
+    @Property(tries = 10_000)
+    void shouldParseAndPrintLikeUuid(@ForAll("uuids") UUID uuid) {
+        UserId id = UserId.parse(uuid.toString());
+
+        assertThat(id, is(equalTo(UserId.of(uuid))));
+        assertThat(id.toString(), is(equalTo(uuid.toString())));
+        assertThat(UserId.parse(uuid.toString().toUpperCase()), is(equalTo(id)));
+    }
+
+    @Property(tries = 10_000)
+    void shouldOrderLikeStrings(@ForAll("uuids") UUID first, @ForAll("uuids") UUID second) {
+        int expected = Integer.signum(first.toString().compareTo(second.toString()));
+
+        assertThat(Integer.signum(UserId.of(first).compareTo(UserId.of(second))), is(equalTo(expected)));
+    }
+
+    @Example
+    void shouldNotParseInvalidIds() {
+        assertThrows(IllegalArgumentException.class, () -> UserId.parse("444"));
+        assertThrows(IllegalArgumentException.class, () -> UserId.parse("6e9f59fa-cc85-4096-9165-7a3661fd6bcx"));
+        assertThrows(IllegalArgumentException.class, () -> UserId.parse("6e9f59fa_cc85-4096-9165-7a3661fd6bc0"));
+    }
+
+    @Provide
+    Arbitrary<UUID> uuids() {
+        return Arbitraries.randomValue(random -> new UUID(random.nextLong(), random.nextLong()));
+    }
+}
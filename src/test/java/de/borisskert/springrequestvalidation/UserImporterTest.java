@@ -0,0 +1,42 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class UserImporterTest {
+
+    @Test
+    public void shouldReadLinesLikeBufferedReader() throws Exception {
+        assertThat(readLines("first\nsecond\r\n\nlast", 10), contains("first", "second", "", "last"));
+        assertThat(readLines("first\n", 10), contains("first"));
+        assertThat(readLines("", 10), is(empty()));
+    }
+
+    @Test
+    public void shouldCutLinesLongerThanMaxLength() throws Exception {
+        String tooLong = "x".repeat(100_000);
+
+        List<String> lines = readLines("0123456789\n" + tooLong + "\nnext\n0123456789\r\n012345678\r9\n", 10);
+
+        assertThat(lines, contains("0123456789", "x".repeat(11), "next", "0123456789", "012345678\r9"));
+    }
+
+    private static List<String> readLines(String input, int maxLength) throws IOException {
+        UserImporter.BoundedLineReader reader = new UserImporter.BoundedLineReader(new StringReader(input), maxLength);
+        List<String> lines = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+
+        return lines;
+    }
+}
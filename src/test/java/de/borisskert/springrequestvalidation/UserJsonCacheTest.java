@@ -0,0 +1,77 @@
+package de.borisskert.springrequestvalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class UserJsonCacheTest {
+
+    private static final UserId ID = UserId.of(UUID.randomUUID());
+    private static final User USER = new User("my_username", "my@fakemail.com", LocalDate.of(1990, 10, 3));
+
+    /**
+     * Configured like the one of Spring Boot
+     */
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new ParameterNamesModule())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final UserJsonCache cache = new UserJsonCache(mapper, 16);
+
+    @Test
+    public void shouldSerializeLikeObjectMapper() throws Exception {
+        UserJsonCache.Json json = cache.byId(ID, USER);
+
+        assertThat(new String(json.getBytes()), is(equalTo("{\"username\":\"my_username\",\"email\":\"my@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}")));
+        assertThat(mapper.readValue(json.getBytes(), User.class), is(equalTo(USER)));
+    }
+
+    @Test
+    public void shouldReuseJsonOfEqualUser() throws Exception {
+        UserJsonCache.Json json = cache.byId(ID, USER);
+
+        assertThat(cache.byId(ID, copyOf(USER)), is(sameInstance(json)));
+        assertThat(cache.byUsername(USER.getUsername(), USER), is(not(sameInstance(json))));
+        assertThat(cache.byUsername(USER.getUsername(), USER), is(sameInstance(cache.byUsername(USER.getUsername(), USER))));
+    }
+
+    @Test
+    public void shouldNotAnswerWithOtherUserOfSameKey() throws Exception {
+        cache.byId(ID, USER);
+        User other = new User("other_user", "other@fakemail.com", LocalDate.of(1980, 1, 1));
+
+        assertThat(mapper.readValue(cache.byId(ID, other).getBytes(), User.class), is(equalTo(other)));
+    }
+
+    @Test
+    public void shouldKeepLatestOfCollidingUsers() throws Exception {
+        UserJsonCache cache = new UserJsonCache(mapper, 1);
+        UserId otherId = UserId.of(UUID.randomUUID());
+
+        cache.byId(ID, USER);
+        UserJsonCache.Json json = cache.byId(otherId, USER);
+
+        assertThat(cache.byId(otherId, USER), is(sameInstance(json)));
+        assertThat(cache.byId(ID, USER), is(not(sameInstance(json))));
+    }
+
+    @Test
+    public void shouldSerializeEveryTimeIfDisabled() throws Exception {
+        UserJsonCache cache = new UserJsonCache(mapper, 0);
+
+        assertThat(cache.byId(ID, USER), is(not(sameInstance(cache.byId(ID, USER)))));
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getUsername(), user.getEmail(), user.getDateOfBirth());
+    }
+}
@@ -0,0 +1,658 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static de.borisskert.springrequestvalidation.MockUsers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserRepositoryTest {
+
+    private static final int THREADS = 16;
+
+    private UserRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        repository = new UserRepository(createStore(), UserJournal.NONE);
+    }
+
+    protected UserStore createStore() {
+        return new HeapUserStore();
+    }
+
+    @Nested
+    class Save {
+        @Test
+        public void shouldSaveUser() throws Exception {
+            assertThat(repository.save(USER_ONE_ID, USER_ONE), is(equalTo(SaveResult.SAVED)));
+
+            assertThat(repository.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+            assertThat(repository.findByUsername(USER_ONE.getUsername()).get(), is(equalTo(USER_ONE)));
+        }
+
+        @Test
+        public void shouldNotSaveUserWithDuplicateId() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+
+            assertThat(repository.save(USER_ONE_ID, USER_TO_INSERT), is(equalTo(SaveResult.ID_EXISTS)));
+
+            assertThat(repository.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+            assertThat(repository.findByUsername(USER_TO_INSERT.getUsername()).isPresent(), is(false));
+        }
+
+        @Test
+        public void shouldNotSaveUserWithDuplicateUsername() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+
+            User duplicate = new User(USER_ONE.getUsername(), "other@fakemail.com", LocalDate.of(1962, 7, 8));
+            assertThat(repository.save(USER_ID_TO_INSERT, duplicate), is(equalTo(SaveResult.USERNAME_EXISTS)));
+
+            assertThat(repository.getById(USER_ID_TO_INSERT).isPresent(), is(false));
+        }
+
+        @Test
+        public void shouldSaveManyUsers() throws Exception {
+            Map<UserId, User> saved = new HashMap<>();
+
+            for (int i = 0; i < 10_000; i++) {
+                UserId id = UserId.of(UUID.randomUUID());
+                User user = new User("üser_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3).minusDays(i));
+
+                assertThat(repository.save(id, user), is(equalTo(SaveResult.SAVED)));
+                saved.put(id, user);
+            }
+
+            Map<UserId, User> iterated = new HashMap<>();
+            repository.forEach(iterated::put);
+
+            assertThat(iterated, is(equalTo(saved)));
+            assertThat(repository.size(), is(equalTo(10_000)));
+
+            saved.forEach((id, user) -> {
+                assertThat(repository.getById(id).get(), is(equalTo(user)));
+                assertThat(repository.findByUsername(user.getUsername()).get(), is(equalTo(user)));
+            });
+        }
+
+        @Test
+        public void shouldSaveUsernameOnlyOnceWhenThreadsRace() throws Exception {
+            List<Callable<SaveResult>> saves = new ArrayList<>();
+
+            for (int i = 0; i < THREADS * 100; i++) {
+                saves.add(() -> repository.save(UserId.of(UUID.randomUUID()), USER_ONE));
+            }
+
+            assertThat(countSaved(saves), is(equalTo(1L)));
+        }
+
+        @Test
+        public void shouldSaveIdOnlyOnceWhenThreadsRace() throws Exception {
+            List<Callable<SaveResult>> saves = new ArrayList<>();
+
+            for (int i = 0; i < THREADS * 100; i++) {
+                User user = new User("user_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3));
+                saves.add(() -> repository.save(USER_ONE_ID, user));
+            }
+
+            assertThat(countSaved(saves), is(equalTo(1L)));
+
+            User saved = repository.getById(USER_ONE_ID).get();
+            assertThat(repository.findByUsername(saved.getUsername()).get(), is(equalTo(saved)));
+        }
+
+        @Test
+        public void shouldNotFindRejectedUsersByUsernameWhenThreadsRace() throws Exception {
+            UserRepository repository = new UserRepository(createStore(), UserJournal.NONE, true);
+            repository.save(USER_ONE_ID, USER_ONE);
+            List<Callable<SaveResult>> saves = new ArrayList<>();
+
+            for (int i = 0; i < THREADS * 100; i++) {
+                String username = "user_" + i;
+                boolean takenEmail = i % 2 == 0;
+                User user = new User(username, takenEmail ? USER_ONE.getEmail() : username + "@fakemail.com", LocalDate.of(1990, 10, 3));
+                UserId id = takenEmail ? UserId.of(UUID.randomUUID()) : USER_ONE_ID;
+                saves.add(() -> repository.save(id, user));
+            }
+
+            AtomicBoolean saving = new AtomicBoolean(true);
+            ExecutorService reader = Executors.newSingleThreadExecutor();
+
+            try {
+                Future<Set<String>> found = reader.submit(() -> {
+                    Set<String> usernames = new TreeSet<>();
+
+                    while (saving.get()) {
+                        for (int i = 0; i < THREADS * 100; i++) {
+                            repository.findByUsername("user_" + i).ifPresent(user -> usernames.add(user.getUsername()));
+                        }
+                    }
+
+                    return usernames;
+                });
+
+                assertThat(countSaved(saves), is(equalTo(0L)));
+                saving.set(false);
+                assertThat(found.get(), is(empty()));
+            } finally {
+                reader.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    class SaveAsync {
+        @Test
+        public void shouldCompleteWhenJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            UserRepository repository = new UserRepository(createStore(), journal(append));
+
+            CompletableFuture<SaveResult> result = repository.saveAsync(USER_ONE_ID, USER_ONE);
+
+            assertThat(result.isDone(), is(false));
+            assertThat(repository.saveAsync(USER_ID_TO_INSERT, USER_ONE).get(), is(equalTo(SaveResult.USERNAME_EXISTS)));
+
+            append.complete(null);
+
+            assertThat(result.get(), is(equalTo(SaveResult.SAVED)));
+            assertThat(repository.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+        }
+
+        @Test
+        public void shouldReleaseUserIfNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            UserRepository repository = new UserRepository(createStore(), journal(append));
+
+            CompletableFuture<SaveResult> result = repository.saveAsync(USER_ONE_ID, USER_ONE);
+            append.completeExceptionally(new IOException("disk full"));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+            assertThat(failure.getCause(), is(instanceOf(IllegalStateException.class)));
+            assertThat(failure.getCause().getCause(), is(instanceOf(IOException.class)));
+            assertThat(repository.getById(USER_ONE_ID).isPresent(), is(false));
+            assertThat(repository.findByUsername(USER_ONE.getUsername()).isPresent(), is(false));
+        }
+
+        private UserJournal journal(CompletableFuture<Void> append) {
+            return new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                }
+            };
+        }
+    }
+
+    @Nested
+    class GetAll {
+        @Test
+        public void shouldReadFoundUsersInOrderOfIds() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            repository.save(TIME_ORDERED_ID, TIME_ORDERED_USER);
+
+            Map<UserId, User> found = repository.getAll(List.of(TIME_ORDERED_ID, NOT_EXISTING_ID, USER_ONE_ID, TIME_ORDERED_ID));
+
+            assertThat(found.keySet(), contains(TIME_ORDERED_ID, USER_ONE_ID));
+            assertThat(found.get(USER_ONE_ID), is(equalTo(USER_ONE)));
+            assertThat(repository.getAll(List.of()).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldReadManyUsersLikeOneByOne() throws Exception {
+            List<UserId> ids = new ArrayList<>();
+
+            for (int i = 0; i < 10_000; i++) {
+                UserId id = UserId.of(UUID.randomUUID());
+                repository.save(id, new User("user_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3)));
+
+                if (i % 10 == 0) {
+                    ids.add(id);
+                    ids.add(UserId.of(UUID.randomUUID()));
+                }
+            }
+
+            Collections.shuffle(ids);
+            Map<UserId, User> expected = new LinkedHashMap<>();
+            ids.forEach(id -> repository.getById(id).ifPresent(user -> expected.put(id, user)));
+
+            Map<UserId, User> found = repository.getAll(ids);
+
+            assertThat(found.size(), is(equalTo(1_000)));
+            assertThat(new ArrayList<>(found.entrySet()), is(equalTo(new ArrayList<>(expected.entrySet()))));
+        }
+    }
+
+    @Nested
+    class Listing {
+        @Test
+        public void shouldListUsersPageByPageInOrderOfIds() throws Exception {
+            Map<UserId, User> saved = saveUsers(1_000);
+
+            Map<UserId, User> listed = new LinkedHashMap<>();
+            UserId after = null;
+
+            for (Map<UserId, User> page = repository.list(null, 100); !page.isEmpty(); page = repository.list(after, 100)) {
+                assertThat(page.size(), is(lessThanOrEqualTo(100)));
+                listed.putAll(page);
+                after = last(page);
+            }
+
+            assertThat(new ArrayList<>(listed.keySet()), is(equalTo(new ArrayList<>(new TreeSet<>(saved.keySet())))));
+            assertThat(listed, is(equalTo(saved)));
+        }
+
+        @Test
+        public void shouldListAfterIdNotSaved() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            repository.save(USER_ID_TO_INSERT, USER_TO_INSERT);
+
+            Map<UserId, User> page = repository.list(TIME_ORDERED_ID, 10);
+
+            assertThat(page.keySet(), contains(USER_ID_TO_INSERT, USER_ONE_ID));
+            assertThat(repository.list(USER_ONE_ID, 10).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldNotListUsersNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            append.completeExceptionally(new IOException("disk full"));
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                }
+            });
+
+            assertThrows(IllegalStateException.class, () -> repository.save(USER_ONE_ID, USER_ONE));
+
+            assertThat(repository.list(null, 10).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldNeitherSkipNorRepeatUsersWhileSavingConcurrently() throws Exception {
+            Map<UserId, User> saved = saveUsers(5_000);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+
+            try {
+                Future<?> saving = executor.submit(() -> saveUsers(5_000));
+
+                List<UserId> listed = new ArrayList<>();
+                for (Map<UserId, User> page = repository.list(null, 50); !page.isEmpty(); page = repository.list(last(page), 50)) {
+                    listed.addAll(page.keySet());
+                }
+
+                saving.get();
+
+                assertThat(listed, is(equalTo(new ArrayList<>(new TreeSet<>(listed)))));
+                assertThat(listed.containsAll(saved.keySet()), is(true));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        private Map<UserId, User> saveUsers(int count) {
+            Map<UserId, User> saved = new HashMap<>();
+
+            for (int i = 0; i < count; i++) {
+                UserId id = UserId.of(UUID.randomUUID());
+                User user = new User(id.toString().substring(0, 12), "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3));
+
+                repository.save(id, user);
+                saved.put(id, user);
+            }
+
+            return saved;
+        }
+
+        private UserId last(Map<UserId, User> page) {
+            UserId last = null;
+
+            for (UserId id : page.keySet()) {
+                last = id;
+            }
+
+            return last;
+        }
+    }
+
+    @Nested
+    class FindByUsernamePrefix {
+        @Test
+        public void shouldFindUsersInOrderOfUsernames() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            repository.save(USER_ID_TO_INSERT, new User("my_user", "user@fakemail.com", LocalDate.of(1948, 6, 21)));
+            repository.save(TIME_ORDERED_ID, TIME_ORDERED_USER);
+            repository.save(NOT_EXISTING_ID, new User("my", "my_other@fakemail.com", LocalDate.of(1948, 6, 21)));
+
+            assertThat(repository.findByUsernamePrefix("my_", 10).keySet(), contains(USER_ID_TO_INSERT, USER_ONE_ID));
+            assertThat(repository.findByUsernamePrefix("my", 10).keySet(), contains(NOT_EXISTING_ID, USER_ID_TO_INSERT, USER_ONE_ID));
+            assertThat(repository.findByUsernamePrefix("my", 2).keySet(), contains(NOT_EXISTING_ID, USER_ID_TO_INSERT));
+            assertThat(repository.findByUsernamePrefix("my_username", 10).get(USER_ONE_ID), is(equalTo(USER_ONE)));
+            assertThat(repository.findByUsernamePrefix("my_usernames", 10).isEmpty(), is(true));
+            assertThat(repository.findByUsernamePrefix("x", 10).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldFindAmongManyUsers() throws Exception {
+            for (int i = 0; i < 10_000; i++) {
+                repository.save(UserId.of(UUID.randomUUID()), new User("üser_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3)));
+            }
+
+            Map<UserId, User> found = repository.findByUsernamePrefix("üser_123", 100);
+
+            assertThat(found.values().stream().map(User::getUsername).collect(Collectors.toList()), contains(
+                    "üser_123", "üser_1230", "üser_1231", "üser_1232", "üser_1233", "üser_1234",
+                    "üser_1235", "üser_1236", "üser_1237", "üser_1238", "üser_1239"
+            ));
+        }
+
+        @Test
+        public void shouldNotFindUsersNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                }
+            });
+
+            CompletableFuture<SaveResult> result = repository.saveAsync(USER_ONE_ID, USER_ONE);
+            assertThat(repository.findByUsernamePrefix("my", 10).keySet(), contains(USER_ONE_ID));
+
+            append.completeExceptionally(new IOException("disk full"));
+
+            assertThrows(ExecutionException.class, result::get);
+            assertThat(repository.findByUsernamePrefix("my", 10).isEmpty(), is(true));
+        }
+    }
+
+    @Nested
+    class FindByEmail {
+        @Test
+        public void shouldFindUsersByEmailIgnoringCase() throws Exception {
+            User sameEmail = new User("other_username", " MY@FakeMail.com", LocalDate.of(1948, 6, 21));
+
+            repository.save(USER_ONE_ID, USER_ONE);
+            repository.save(USER_ID_TO_INSERT, sameEmail);
+            repository.save(TIME_ORDERED_ID, TIME_ORDERED_USER);
+
+            assertThat(repository.findByEmail("My@fakemail.com"), is(equalTo(Map.of(USER_ONE_ID, USER_ONE, USER_ID_TO_INSERT, sameEmail))));
+            assertThat(repository.findByEmail(TIME_ORDERED_USER.getEmail()), is(equalTo(Map.of(TIME_ORDERED_ID, TIME_ORDERED_USER))));
+            assertThat(repository.findByEmail("unknown@fakemail.com").isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldNotFindUsersWithConflictingIdOrUsername() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+
+            repository.save(USER_ONE_ID, USER_WITH_DUPLICATE_EMAIL);
+            repository.save(USER_ID_TO_INSERT, new User(USER_ONE.getUsername(), "Taken@FakeMail.com", LocalDate.of(1948, 6, 21)));
+
+            assertThat(repository.findByEmail("taken@fakemail.com").isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldNotSaveDuplicateEmailIfUnique() throws Exception {
+            UserRepository repository = new UserRepository(createStore(), UserJournal.NONE, true);
+            repository.save(USER_ONE_ID, new User("my_username", "taken@fakemail.com", LocalDate.of(1990, 10, 3)));
+
+            assertThat(repository.save(USER_ID_TO_INSERT, USER_WITH_DUPLICATE_EMAIL), is(equalTo(SaveResult.EMAIL_EXISTS)));
+            assertThat(repository.save(USER_ONE_ID, USER_WITH_DUPLICATE_EMAIL), is(equalTo(SaveResult.ID_EXISTS)));
+            assertThat(repository.getById(USER_ID_TO_INSERT).isPresent(), is(false));
+            assertThat(repository.findByUsername(USER_WITH_DUPLICATE_EMAIL.getUsername()).isPresent(), is(false));
+            assertThat(repository.findByEmail("taken@fakemail.com").keySet(), contains(USER_ONE_ID));
+        }
+
+        @Test
+        public void shouldReleaseEmailOfRejectedUser() throws Exception {
+            UserRepository repository = new UserRepository(createStore(), UserJournal.NONE, true);
+            repository.save(USER_ONE_ID, USER_ONE);
+
+            User sameUsername = new User(USER_ONE.getUsername(), "taken@fakemail.com", LocalDate.of(1948, 6, 21));
+            assertThat(repository.save(USER_ID_TO_INSERT, sameUsername), is(equalTo(SaveResult.USERNAME_EXISTS)));
+
+            assertThat(repository.save(USER_ID_TO_INSERT, USER_WITH_DUPLICATE_EMAIL), is(equalTo(SaveResult.SAVED)));
+        }
+
+        @Test
+        public void shouldReleaseEmailOfUserNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                }
+            }, true);
+
+            CompletableFuture<SaveResult> result = repository.saveAsync(USER_ONE_ID, USER_WITH_DUPLICATE_EMAIL);
+            append.completeExceptionally(new IOException("disk full"));
+            assertThrows(ExecutionException.class, result::get);
+
+            assertThat(repository.findByEmail(USER_WITH_DUPLICATE_EMAIL.getEmail()).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldRestoreDuplicateEmails() throws Exception {
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                    consumer.accept(USER_ONE_ID, USER_ONE);
+                    consumer.accept(USER_ID_TO_INSERT, USER_WITH_DUPLICATE_USERNAME);
+                }
+            }, true);
+
+            assertThat(repository.findByEmail(USER_ONE.getEmail()).size(), is(equalTo(2)));
+        }
+
+        @Test
+        public void shouldSaveUniqueEmailOnlyOnceWhenThreadsRace() throws Exception {
+            UserRepository repository = new UserRepository(createStore(), UserJournal.NONE, true);
+            List<Callable<SaveResult>> saves = new ArrayList<>();
+
+            for (int i = 0; i < THREADS * 100; i++) {
+                User user = new User("user_" + i, "same@fakemail.com", LocalDate.of(1990, 10, 3));
+                saves.add(() -> repository.save(UserId.of(UUID.randomUUID()), user));
+            }
+
+            assertThat(countSaved(saves), is(equalTo(1L)));
+            assertThat(repository.findByEmail("same@fakemail.com").size(), is(equalTo(1)));
+        }
+    }
+
+    @Nested
+    class FindByDateOfBirth {
+        @Test
+        public void shouldFindUsersBornBetweenDaysPageByPage() throws Exception {
+            Map<UserId, User> saved = new HashMap<>();
+
+            for (int i = 0; i < 1_000; i++) {
+                UserId id = UserId.of(UUID.randomUUID());
+                User user = new User("user_" + i, "user_" + i + "@fakemail.com", LocalDate.of(1990, 1, 1).plusDays(i % 100));
+
+                repository.save(id, user);
+                saved.put(id, user);
+            }
+
+            long bornAfter = LocalDate.of(1990, 1, 10).toEpochDay();
+            long bornBefore = LocalDate.of(1990, 2, 20).toEpochDay();
+
+            List<DateOfBirthKey> expected = saved.entrySet().stream()
+                    .map(entry -> DateOfBirthKey.of(entry.getKey(), entry.getValue()))
+                    .filter(key -> key.getEpochDay() > bornAfter && key.getEpochDay() < bornBefore)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+            List<DateOfBirthKey> found = new ArrayList<>();
+            DateOfBirthKey after = null;
+
+            for (Map<UserId, User> page = repository.findByDateOfBirth(bornAfter, bornBefore, null, 30); !page.isEmpty();
+                 page = repository.findByDateOfBirth(bornAfter, bornBefore, after, 30)) {
+                page.forEach((id, user) -> found.add(DateOfBirthKey.of(id, user)));
+                after = found.get(found.size() - 1);
+            }
+
+            assertThat(expected, hasSize(400));
+            assertThat(found, is(equalTo(expected)));
+        }
+
+        @Test
+        public void shouldFindNothingInEmptyRange() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            long dateOfBirth = USER_ONE.getDateOfBirth().toEpochDay();
+
+            assertThat(repository.findByDateOfBirth(dateOfBirth - 1, dateOfBirth + 1, null, 10).keySet(), contains(USER_ONE_ID));
+            assertThat(repository.findByDateOfBirth(dateOfBirth, dateOfBirth + 1, null, 10).isEmpty(), is(true));
+            assertThat(repository.findByDateOfBirth(dateOfBirth - 1, dateOfBirth, null, 10).isEmpty(), is(true));
+            assertThat(repository.findByDateOfBirth(dateOfBirth + 1, dateOfBirth - 1, null, 10).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldIgnoreCursorBeforeRange() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            long dateOfBirth = USER_ONE.getDateOfBirth().toEpochDay();
+            DateOfBirthKey before = DateOfBirthKey.of(USER_ONE_ID, TIME_ORDERED_USER);
+
+            assertThat(repository.findByDateOfBirth(dateOfBirth - 1, dateOfBirth + 1, before, 10).keySet(), contains(USER_ONE_ID));
+            assertThat(repository.findByDateOfBirth(dateOfBirth - 1, dateOfBirth + 1, DateOfBirthKey.of(USER_ONE_ID, USER_ONE), 10).isEmpty(), is(true));
+        }
+
+        @Test
+        public void shouldNotFindUsersNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            append.completeExceptionally(new IOException("disk full"));
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                }
+            });
+
+            assertThrows(IllegalStateException.class, () -> repository.save(USER_ONE_ID, USER_ONE));
+
+            assertThat(repository.findByDateOfBirth(Long.MIN_VALUE + 1, Long.MAX_VALUE, null, 10).isEmpty(), is(true));
+        }
+    }
+
+    @Nested
+    class Stats {
+        @Test
+        public void shouldCountSavedUsers() throws Exception {
+            repository.save(USER_ONE_ID, USER_ONE);
+            repository.save(USER_ID_TO_INSERT, new User("other_user", "Other@FakeMail.com", LocalDate.of(1990, 1, 1)));
+            repository.save(TIME_ORDERED_ID, TIME_ORDERED_USER);
+            repository.save(USER_ONE_ID, USER_WITH_DUPLICATE_EMAIL);
+
+            UserStats stats = repository.stats();
+
+            assertThat(stats.getTotal(), is(equalTo(3L)));
+            assertThat(stats.getByBirthYear(), is(equalTo(Map.of(1989, 1L, 1990, 2L))));
+            assertThat(stats.getByEmailDomain(), is(equalTo(Map.of("fakemail.com", 3L))));
+        }
+
+        @Test
+        public void shouldNotCountUsersNotJournaled() throws Exception {
+            CompletableFuture<Void> append = new CompletableFuture<>();
+            append.completeExceptionally(new IOException("disk full"));
+            UserRepository repository = new UserRepository(createStore(), new UserJournal() {
+                @Override
+                public CompletableFuture<Void> append(UserId id, User user) {
+                    return append;
+                }
+
+                @Override
+                public void replay(BiConsumer<UserId, User> consumer) {
+                    consumer.accept(USER_ONE_ID, USER_ONE);
+                }
+            });
+
+            assertThrows(IllegalStateException.class, () -> repository.save(TIME_ORDERED_ID, TIME_ORDERED_USER));
+
+            UserStats stats = repository.stats();
+            assertThat(stats.getTotal(), is(equalTo(1L)));
+            assertThat(stats.getByBirthYear(), is(equalTo(Map.of(1990, 1L))));
+        }
+
+        @Test
+        public void shouldCountUsersSavedConcurrently() throws Exception {
+            List<Callable<SaveResult>> saves = new ArrayList<>();
+
+            for (int i = 0; i < THREADS * 100; i++) {
+                User user = new User("user_" + i, "user_" + i + "@domain" + i % 3 + ".com", LocalDate.of(1990 + i % 2, 10, 3));
+                saves.add(() -> repository.save(UserId.of(UUID.randomUUID()), user));
+            }
+
+            countSaved(saves);
+
+            UserStats stats = repository.stats();
+            assertThat(stats.getTotal(), is(equalTo((long) repository.size())));
+            assertThat(stats.getByBirthYear(), is(equalTo(Map.of(1990, 800L, 1991, 800L))));
+            assertThat(stats.getByEmailDomain().keySet(), contains("domain0.com", "domain1.com", "domain2.com"));
+        }
+
+        @Test
+        public void shouldCountUsersOfDomainsBeyondTheLimitTogether() throws Exception {
+            for (int i = 0; i < UserStatistics.MAX_EMAIL_DOMAINS + 10; i++) {
+                repository.save(UserId.of(UUID.randomUUID()), new User("user_" + i, "user@domain" + i + ".com", LocalDate.of(1990, 10, 3)));
+            }
+
+            UserStats stats = repository.stats();
+            assertThat(stats.getTotal(), is(equalTo(UserStatistics.MAX_EMAIL_DOMAINS + 10L)));
+            assertThat(stats.getByEmailDomain().size(), is(equalTo(UserStatistics.MAX_EMAIL_DOMAINS)));
+            assertThat(stats.getOtherEmailDomains(), is(equalTo(10L)));
+        }
+    }
+
+    private long countSaved(List<Callable<SaveResult>> saves) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            long saved = 0;
+
+            for (Future<SaveResult> result : executor.invokeAll(saves)) {
+                if (result.get() == SaveResult.SAVED) {
+                    saved++;
+                }
+            }
+
+            return saved;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.borisskert.springrequestvalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static de.borisskert.springrequestvalidation.MockUsers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserSnapshotTest {
+
+    private Path path;
+
+    @BeforeEach
+    public void setup(@TempDir Path directory) {
+        path = directory.resolve("users.snapshot");
+    }
+
+    @Test
+    public void shouldLoadWrittenUsers() throws Exception {
+        UserRepository repository = new UserRepository();
+        Map<UserId, User> saved = new LinkedHashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            UserId id = UserId.of(UUID.randomUUID());
+            User user = new User("user_" + i, "üser_" + i + "@fakemail.com", LocalDate.of(1990, 10, 3).minusDays(i));
+
+            repository.save(id, user);
+            saved.put(id, user);
+        }
+
+        assertThat(UserSnapshot.write(path, repository), is(equalTo(100_000L)));
+
+        Map<UserId, User> loaded = new LinkedHashMap<>();
+        UserSnapshot.load(path, loaded::put);
+
+        assertThat(loaded, is(equalTo(saved)));
+    }
+
+    @Test
+    public void shouldReplaceExistingSnapshot() throws Exception {
+        UserRepository repository = new UserRepository();
+
+        repository.save(USER_ONE_ID, USER_ONE);
+        UserSnapshot.write(path, repository);
+
+        repository.save(USER_ID_TO_INSERT, USER_TO_INSERT);
+        UserSnapshot.write(path, repository);
+
+        UserRepository restored = new UserRepository();
+        UserSnapshot.load(path, restored::restore);
+
+        assertThat(restored.getById(USER_ONE_ID).get(), is(equalTo(USER_ONE)));
+        assertThat(restored.findByUsername(USER_TO_INSERT.getUsername()).get(), is(equalTo(USER_TO_INSERT)));
+    }
+
+    @Test
+    public void shouldLoadSnapshotsWithoutJournalPosition() throws Exception {
+        UserRepository repository = new UserRepository();
+        repository.save(USER_ONE_ID, USER_ONE);
+        UserSnapshot.write(path, repository);
+
+        byte[] written = Files.readAllBytes(path);
+        ByteBuffer version1 = ByteBuffer.allocate(written.length - Long.BYTES)
+                .putInt(0x55534E50)
+                .putInt(1)
+                .put(written, 2 * Integer.BYTES + Long.BYTES, written.length - 2 * Integer.BYTES - Long.BYTES);
+        Files.write(path, version1.array());
+
+        Map<UserId, User> loaded = new LinkedHashMap<>();
+
+        assertThat(UserSnapshot.load(path, loaded::put), is(0L));
+        assertThat(loaded, is(equalTo(Map.of(USER_ONE_ID, USER_ONE))));
+    }
+
+    @Test
+    public void shouldNotLoadOtherFiles() throws Exception {
+        Files.writeString(path, "no snapshot");
+
+        assertThrows(IOException.class, () -> UserSnapshot.load(path, (id, user) -> {
+        }));
+    }
+}
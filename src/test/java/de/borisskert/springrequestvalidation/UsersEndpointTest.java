@@ -6,45 +6,151 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static de.borisskert.springrequestvalidation.MockUsers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "users.batch.max-size=2")
 class UsersEndpointTest {
 
     @Autowired
     private TestRestTemplate restTemplate;
 
     @MockBean
-    private UserService userService;
+    private UserRepository userRepository;
+
+    @MockBean
+    private IdGenerator idGenerator;
+
+    @SpyBean
+    private UserJsonCache jsonCache;
+
+    @Autowired
+    private Environment environment;
 
     @BeforeEach
     public void setup() throws Exception {
-        when(userService.getUserById(USER_ONE_ID)).thenReturn(Optional.of(USER_ONE));
-        when(userService.findByUsername("my_username")).thenReturn(Optional.of(USER_ONE));
+        when(userRepository.getById(USER_ONE_ID)).thenReturn(Optional.of(USER_ONE));
+        when(userRepository.findByUsername("my_username")).thenReturn(Optional.of(USER_ONE));
+
+        when(userRepository.getById(TIME_ORDERED_ID)).thenReturn(Optional.of(TIME_ORDERED_USER));
+        when(userRepository.getById(NOT_EXISTING_ID)).thenReturn(Optional.empty());
+
+        when(idGenerator.newId()).thenReturn(CREATED_ID, SECOND_CREATED_ID);
+
+        doAnswer(invocation -> saveResultOf(invocation.getArgument(1)))
+                .when(userRepository).save(any(), any());
+        doReturn(SaveResult.ID_EXISTS)
+                .when(userRepository).save(eq(USER_ONE_ID), any());
+
+        doAnswer(invocation -> CompletableFuture.completedFuture(saveResultOf(invocation.getArgument(1))))
+                .when(userRepository).saveAsync(any(), any());
+        doReturn(CompletableFuture.completedFuture(SaveResult.ID_EXISTS))
+                .when(userRepository).saveAsync(eq(USER_ONE_ID), any());
+
+        doAnswer(invocation -> page(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(userRepository).list(any(), anyInt());
+
+        when(userRepository.findByUsernamePrefix(eq("my_"), anyInt())).thenReturn(Map.of(USER_ONE_ID, USER_ONE));
+        when(userRepository.findByEmail(any())).thenReturn(Map.of());
+        doAnswer(invocation -> {
+            Map<UserId, User> found = new LinkedHashMap<>();
+            List<UserId> ids = invocation.getArgument(0);
+            ids.forEach(id -> userRepository.getById(id).ifPresent(user -> found.put(id, user)));
+
+            return found;
+        }).when(userRepository).getAll(any());
+        when(userRepository.stats()).thenReturn(new UserStats(3, new TreeMap<>(Map.of(1948, 1L, 1990, 2L)), Map.of("fakemail.com", 3L), 0));
+        doAnswer(invocation -> bornBetween(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)))
+                .when(userRepository).findByDateOfBirth(anyLong(), anyLong(), any(), anyInt());
+        when(userRepository.findByEmail("my@fakemail.com")).thenReturn(Map.of(USER_ONE_ID, USER_ONE));
+
+        doAnswer(invocation -> {
+            Map<UserId, User> users = invocation.getArgument(0);
+            Map<UserId, SaveResult> results = new LinkedHashMap<>();
+            users.forEach((id, user) -> results.put(id, saveResultOf(user)));
+
+            return results;
+        }).when(userRepository).saveAll(any());
+    }
+
+    /**
+     * Requests are timed and traced on Spring MVC only
+     */
+    private void assumeServlet() {
+        assumeFalse("reactive".equals(environment.getProperty("spring.main.web-application-type")));
+    }
+
+    /**
+     * Lists the users with ids from {@link MockUsers} like the {@link UserRepository}
+     */
+    private static Map<UserId, User> page(UserId after, int limit) {
+        TreeMap<UserId, User> users = new TreeMap<>(Map.of(
+                USER_ONE_ID, USER_ONE,
+                USER_ID_TO_INSERT, USER_TO_INSERT,
+                TIME_ORDERED_ID, TIME_ORDERED_USER
+        ));
+
+        return (after == null ? users : users.tailMap(after, false)).entrySet().stream()
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
 
-        when(userService.getUserById(NOT_EXISTING_ID)).thenReturn(Optional.empty());
+    /**
+     * Finds the users from {@link MockUsers} like the {@link UserRepository}
+     */
+    private static Map<UserId, User> bornBetween(long bornAfter, long bornBefore, DateOfBirthKey after, int limit) {
+        TreeMap<DateOfBirthKey, User> users = new TreeMap<>();
+        Map.of(USER_ONE_ID, USER_ONE, USER_ID_TO_INSERT, USER_TO_INSERT, TIME_ORDERED_ID, TIME_ORDERED_USER)
+                .forEach((id, user) -> users.put(DateOfBirthKey.of(id, user), user));
+
+        return users.entrySet().stream()
+                .filter(entry -> entry.getKey().getEpochDay() > bornAfter && entry.getKey().getEpochDay() < bornBefore)
+                .filter(entry -> after == null || entry.getKey().compareTo(after) > 0)
+                .limit(limit)
+                .collect(Collectors.toMap(entry -> entry.getKey().getId(), Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
 
-        when(userService.create(USER_TO_CREATE)).thenReturn("777");
+    private static SaveResult saveResultOf(User user) {
+        if (user.equals(USER_WITH_DUPLICATE_EMAIL)) {
+            return SaveResult.EMAIL_EXISTS;
+        }
 
-        when(userService.create(eq(USER_WITH_DUPLICATE_USERNAME))).thenThrow(new UsernameAlreadyExistsException("Username 'duplicate' already exists"));
-        doThrow(new UsernameAlreadyExistsException("Username 'duplicate' already exists"))
-                .when(userService).insert(any(), eq(USER_WITH_DUPLICATE_USERNAME));
+        return user.equals(USER_WITH_DUPLICATE_USERNAME) ? SaveResult.USERNAME_EXISTS : SaveResult.SAVED;
     }
 
     @Nested
@@ -57,6 +163,53 @@ class UsersEndpointTest {
             assertThat(response.getBody(), is(equalTo(USER_ONE)));
         }
 
+        @Test
+        public void shouldTagUser() throws Exception {
+            ResponseEntity<User> response = restTemplate.getForEntity("/api/users/" + USER_ONE_ID, User.class);
+
+            assertThat(response.getHeaders().get(HttpHeaders.ETAG), contains(UserETag.of(USER_ONE)));
+        }
+
+        @Test
+        public void shouldAnswerNotModifiedToMatchingETag() throws Exception {
+            ResponseEntity<String> response = getWithIfNoneMatch(UserETag.of(USER_ONE));
+
+            assertThat(response.getStatusCode(), is(equalTo(NOT_MODIFIED)));
+            assertThat(response.getHeaders().get(HttpHeaders.ETAG), contains(UserETag.of(USER_ONE)));
+            assertThat(response.getBody(), is(nullValue()));
+        }
+
+        @Test
+        public void shouldNotSerializeUserToMatchingETag() throws Exception {
+            clearInvocations(jsonCache);
+            getWithIfNoneMatch(UserETag.of(USER_ONE));
+
+            verify(jsonCache, never()).byId(any(), any());
+        }
+
+        @Test
+        public void shouldAnswerNotModifiedToAnyOfMatchingETags() throws Exception {
+            ResponseEntity<String> response = getWithIfNoneMatch("\"0000000000000000\", W/" + UserETag.of(USER_ONE));
+
+            assertThat(response.getStatusCode(), is(equalTo(NOT_MODIFIED)));
+        }
+
+        @Test
+        public void shouldRetrieveUserWithOtherETag() throws Exception {
+            ResponseEntity<String> response = getWithIfNoneMatch(UserETag.of(TIME_ORDERED_USER));
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), containsString("\"username\":\"my_username\""));
+        }
+
+        @Test
+        public void shouldRetrieveUserByTimeOrderedId() throws Exception {
+            ResponseEntity<User> response = restTemplate.getForEntity("/api/users/" + TIME_ORDERED_ID, User.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(TIME_ORDERED_USER)));
+        }
+
         @Test
         public void shouldNotFindWithUnknownId() throws Exception {
             ResponseEntity<User> response = restTemplate.getForEntity("/api/users/" + NOT_EXISTING_ID, User.class);
@@ -70,6 +223,21 @@ class UsersEndpointTest {
 
             assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
         }
+
+        @Test
+        public void shouldNotAcceptIllegalId() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users/444", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"Invalid parameter\"}")));
+        }
+
+        private ResponseEntity<String> getWithIfNoneMatch(String eTags) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfNoneMatch(eTags);
+
+            return restTemplate.exchange("/api/users/" + USER_ONE_ID, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        }
     }
 
     @Nested
@@ -89,6 +257,19 @@ class UsersEndpointTest {
             assertThat(response.getStatusCode(), is(equalTo(NOT_FOUND)));
         }
 
+        @Test
+        public void shouldAnswerNotModifiedToMatchingETag() throws Exception {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfNoneMatch(UserETag.of(USER_ONE));
+            clearInvocations(jsonCache);
+
+            ResponseEntity<String> response = restTemplate.exchange("/api/users?username=my_username", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(NOT_MODIFIED)));
+            assertThat(response.getHeaders().get(HttpHeaders.ETAG), contains(UserETag.of(USER_ONE)));
+            verify(jsonCache, never()).byUsername(any(), any());
+        }
+
         @Test
         public void shouldAcceptTooShortUsername() throws Exception {
             ResponseEntity<User> response = restTemplate.getForEntity("/api/users?username=ccc", User.class);
@@ -104,6 +285,199 @@ class UsersEndpointTest {
         }
     }
 
+    @Nested
+    class GetPage {
+        @Test
+        public void shouldListFirstPage() throws Exception {
+            ResponseEntity<UserPage> response = restTemplate.getForEntity("/api/users?limit=2", UserPage.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(idsOf(response.getBody()), contains(TIME_ORDERED_ID.toString(), USER_ID_TO_INSERT.toString()));
+            assertThat(response.getBody().getUsers().get(1).toUser(), is(equalTo(USER_TO_INSERT)));
+            assertThat(response.getBody().getNext(), is(equalTo(USER_ID_TO_INSERT.toString())));
+        }
+
+        @Test
+        public void shouldListLastPageAfterCursor() throws Exception {
+            ResponseEntity<UserPage> response = restTemplate.getForEntity("/api/users?after=" + USER_ID_TO_INSERT + "&limit=2", UserPage.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(idsOf(response.getBody()), contains(USER_ONE_ID.toString()));
+            assertThat(response.getBody().getNext(), is(nullValue()));
+        }
+
+        @Test
+        public void shouldListOneMoreUserToTellLastPage() throws Exception {
+            restTemplate.getForEntity("/api/users?limit=20", String.class);
+
+            verify(userRepository).list(null, 21);
+        }
+
+        @Test
+        public void shouldRequireLimit() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?after=" + USER_ID_TO_INSERT, String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldNotAcceptInvalidCursor() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?after=not-a-uuid", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldNotAcceptLimitOutOfRange() throws Exception {
+            assertThat(restTemplate.getForEntity("/api/users?limit=0", String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(restTemplate.getForEntity("/api/users?limit=1001", String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        private List<String> idsOf(UserPage page) {
+            return page.getUsers().stream()
+                    .map(UserPage.Item::getId)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Nested
+    class GetByDateOfBirth {
+        @Test
+        public void shouldFindFirstPageOrderedByDateOfBirth() throws Exception {
+            ResponseEntity<UserPage> response = restTemplate.getForEntity(
+                    "/api/users?bornAfter=1948-06-21&bornBefore=2000-01-01&limit=1", UserPage.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody().getUsers(), hasSize(1));
+            assertThat(response.getBody().getUsers().get(0).toUser(), is(equalTo(TIME_ORDERED_USER)));
+            assertThat(response.getBody().getNext(), is(equalTo("1989-11-09_" + TIME_ORDERED_ID)));
+        }
+
+        @Test
+        public void shouldFindLastPageAfterCursor() throws Exception {
+            ResponseEntity<UserPage> response = restTemplate.getForEntity(
+                    "/api/users?bornAfter=1948-06-21&bornBefore=2000-01-01&limit=1&after=1989-11-09_" + TIME_ORDERED_ID, UserPage.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody().getUsers().get(0).getId(), is(equalTo(USER_ONE_ID.toString())));
+            assertThat(response.getBody().getNext(), is(nullValue()));
+        }
+
+        @Test
+        public void shouldNotAcceptInvalidCursor() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    "/api/users?bornAfter=1948-06-21&bornBefore=2000-01-01&limit=1&after=" + TIME_ORDERED_ID, String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldNotAcceptInvalidDate() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity(
+                    "/api/users?bornAfter=1948-13-21&bornBefore=2000-01-01&limit=1", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldRequireBothDates() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?bornAfter=1948-06-21&limit=1", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+    }
+
+    @Nested
+    class GetStats {
+        @Test
+        public void shouldCountUsers() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users/stats", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(
+                    "{\"total\":3,\"byBirthYear\":{\"1948\":1,\"1990\":2},\"byEmailDomain\":{\"fakemail.com\":3},\"otherEmailDomains\":0}"
+            )));
+        }
+    }
+
+    @Nested
+    class GetByEmail {
+        @Test
+        public void shouldFindUserByEmail() throws Exception {
+            ResponseEntity<List<UserPage.Item>> response = restTemplate.exchange(
+                    "/api/users?email=my@fakemail.com", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<UserPage.Item>>() {
+                    }
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), hasSize(1));
+            assertThat(response.getBody().get(0).getId(), is(equalTo(USER_ONE_ID.toString())));
+            assertThat(response.getBody().get(0).toUser(), is(equalTo(USER_ONE)));
+        }
+
+        @Test
+        public void shouldFindNoUserByUnknownEmail() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?email=unknown@fakemail.com", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo("[]")));
+        }
+
+        @Test
+        public void shouldNotAcceptIllegalEmail() throws Exception {
+            assertThat(restTemplate.getForEntity("/api/users?email=not_a_email", String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(restTemplate.getForEntity("/api/users?email=", String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldNotAcceptEmailAndUsername() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?username=my_username&email=my@fakemail.com", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+    }
+
+    @Nested
+    class GetByUsernamePrefix {
+        @Test
+        public void shouldFindUsersByUsernamePrefix() throws Exception {
+            ResponseEntity<List<UserPage.Item>> response = restTemplate.exchange(
+                    "/api/users?usernamePrefix=my_&limit=5", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<UserPage.Item>>() {
+                    }
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), hasSize(1));
+            assertThat(response.getBody().get(0).getId(), is(equalTo(USER_ONE_ID.toString())));
+            assertThat(response.getBody().get(0).toUser(), is(equalTo(USER_ONE)));
+            verify(userRepository).findByUsernamePrefix("my_", 5);
+        }
+
+        @Test
+        public void shouldNotAcceptEmptyPrefix() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?usernamePrefix=&limit=5", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldRequireLimit() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/api/users?usernamePrefix=my_", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldStillFindUserByUsernameWithLimit() throws Exception {
+            ResponseEntity<User> response = restTemplate.getForEntity("/api/users?username=my_username&limit=5", User.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(USER_ONE)));
+        }
+    }
+
     @Nested
     class Post {
         @Test
@@ -111,7 +485,7 @@ class UsersEndpointTest {
             ResponseEntity<Void> response = restTemplate.postForEntity("/api/users", USER_TO_CREATE, Void.class);
 
             assertThat(response.getStatusCode(), is(equalTo(CREATED)));
-            assertThat(response.getHeaders().get("Location").get(0), is(equalTo("/api/users/777")));
+            assertThat(response.getHeaders().get("Location").get(0), is(equalTo("/api/users/" + CREATED_ID)));
         }
 
         @Test
@@ -156,8 +530,154 @@ class UsersEndpointTest {
 
         @Test
         public void shouldNotAllowUserWithDuplicateUsername() throws Exception {
-            ResponseEntity<Void> response = restTemplate.postForEntity("/api/users", USER_WITH_DUPLICATE_USERNAME, Void.class);
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users", USER_WITH_DUPLICATE_USERNAME, String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(CONFLICT)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Username already exists\"}")));
+        }
+
+        @Test
+        public void shouldNotAllowUserWithDuplicateEmail() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users", USER_WITH_DUPLICATE_EMAIL, String.class);
+
             assertThat(response.getStatusCode(), is(equalTo(CONFLICT)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Email already exists\"}")));
+        }
+
+        @Test
+        public void shouldAnswerInvalidUserWithErrorBody() throws Exception {
+            User userToCreate = new User("my_username", "not_a_email", LocalDate.of(1944, 7, 20));
+
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users", userToCreate, String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"Invalid user\","
+                    + "\"errors\":[\"email: must be a well-formed email address\"]}")));
+        }
+    }
+
+    @Nested
+    class PostBatch {
+        @Test
+        public void shouldCreateUsers() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    "/api/users/batch",
+                    List.of(USER_TO_CREATE, USER_WITH_DUPLICATE_USERNAME),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(
+                    "[{\"index\":0,\"status\":\"CREATED\",\"id\":\"" + CREATED_ID + "\"}," +
+                            "{\"index\":1,\"status\":\"CONFLICT\",\"errors\":[\"Username 'duplicate' already exists\"]}]"
+            )));
+        }
+
+        @Test
+        public void shouldRejectDuplicateEmail() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    "/api/users/batch",
+                    List.of(USER_WITH_DUPLICATE_EMAIL),
+                    String.class
+            );
+
+            assertThat(response.getBody(), is(equalTo(
+                    "[{\"index\":0,\"status\":\"CONFLICT\",\"errors\":[\"Email 'Taken@FakeMail.com' already exists\"]}]"
+            )));
+        }
+
+        @Test
+        public void shouldNotAcceptSingleUser() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users/batch", USER_TO_CREATE, String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        @Test
+        public void shouldNotAcceptMoreUsersThanMaxBatchSize() throws Exception {
+            clearInvocations(userRepository);
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    "/api/users/batch",
+                    List.of(USER_TO_CREATE, USER_WITH_DUPLICATE_USERNAME, USER_WITH_DUPLICATE_EMAIL),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+            verify(userRepository, never()).saveAll(any());
+        }
+    }
+
+    @Nested
+    class PostImport {
+        @Test
+        public void shouldImportUsersLineByLine() throws Exception {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.valueOf(UserImporter.NDJSON));
+
+            String lines = "{\"username\":\"created_user\",\"email\":\"my_other@fakemail.com\",\"dateOfBirth\":\"1945-05-08\"}\n"
+                    + "\n"
+                    + "{\"username\":\"invalid\",\"email\":\"not_a_email\",\"dateOfBirth\":\"1945-05-08\"}\n"
+                    + "{\"username\":\"duplicate\",\"email\":\"my@fakemail.com\",\"dateOfBirth\":\"1962-07-08\"}\n";
+
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users/import", new HttpEntity<>(lines, headers), String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(
+                    "{\"index\":0,\"status\":\"CREATED\",\"id\":\"" + CREATED_ID + "\"}\n" +
+                            "{\"index\":1,\"status\":\"INVALID\",\"errors\":[\"email: must be a well-formed email address\"]}\n" +
+                            "{\"index\":2,\"status\":\"CONFLICT\",\"errors\":[\"Username 'duplicate' already exists\"]}\n"
+            )));
+        }
+
+        @Test
+        public void shouldReportTooLongLineAndContinue() throws Exception {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.valueOf(UserImporter.NDJSON));
+
+            String lines = "{\"username\":\"" + "x".repeat(20_000) + "\",\"email\":\"my_other@fakemail.com\",\"dateOfBirth\":\"1945-05-08\"}\n"
+                    + "{\"username\":\"created_user\",\"email\":\"my_other@fakemail.com\",\"dateOfBirth\":\"1945-05-08\"}\n";
+
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users/import", new HttpEntity<>(lines, headers), String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo(
+                    "{\"index\":0,\"status\":\"INVALID\",\"errors\":[\"user: must not be longer than 16384 characters\"]}\n" +
+                            "{\"index\":1,\"status\":\"CREATED\",\"id\":\"" + CREATED_ID + "\"}\n"
+            )));
+        }
+    }
+
+    @Nested
+    class PostLookup {
+        @Test
+        public void shouldAnswerFoundUsersAndMissingIds() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                    "/api/users/lookup",
+                    List.of(TIME_ORDERED_ID.toString(), NOT_EXISTING_ID.toString(), USER_ONE_ID.toString(), NOT_EXISTING_ID.toString()),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+            assertThat(response.getBody(), is(equalTo("{\"users\":[" +
+                    "{\"id\":\"" + TIME_ORDERED_ID + "\",\"username\":\"time_ordered\",\"email\":\"time_ordered@fakemail.com\",\"dateOfBirth\":\"1989-11-09\"}," +
+                    "{\"id\":\"" + USER_ONE_ID + "\",\"username\":\"my_username\",\"email\":\"my@fakemail.com\",\"dateOfBirth\":\"1990-10-03\"}" +
+                    "],\"missing\":[\"" + NOT_EXISTING_ID + "\"]}")));
+        }
+
+        @Test
+        public void shouldNotAcceptInvalidId() throws Exception {
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/users/lookup", List.of(USER_ONE_ID.toString(), "444"), String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"Invalid parameter\"}")));
+        }
+
+        @Test
+        public void shouldNotAcceptEmptyOrTooManyIds() throws Exception {
+            List<String> tooMany = Collections.nCopies(1001, USER_ONE_ID.toString());
+
+            assertThat(restTemplate.postForEntity("/api/users/lookup", List.of(), String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(restTemplate.postForEntity("/api/users/lookup", tooMany, String.class).getStatusCode(), is(equalTo(BAD_REQUEST)));
         }
     }
 
@@ -201,6 +721,21 @@ class UsersEndpointTest {
             assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
         }
 
+        @Test
+        public void shouldListAllErrorsOfInvalidUser() throws Exception {
+            User userToCreate = new User(null, "not_a_email", LocalDate.of(1944, 7, 20));
+
+            ResponseEntity<String> response = restTemplate.exchange(
+                    "/api/users/" + USER_ID_TO_INSERT,
+                    HttpMethod.PUT,
+                    new HttpEntity<>(userToCreate),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+            assertThat(response.getBody(), endsWith("\"errors\":[\"email: must be a well-formed email address\",\"username: must not be empty\"]}"));
+        }
+
         @Test
         public void shouldNotAllowUserWithoutEmail() throws Exception {
             User userToCreate = new User("my_username", null, LocalDate.of(1944, 7, 20));
@@ -268,5 +803,160 @@ class UsersEndpointTest {
 
             assertThat(response.getStatusCode(), is(equalTo(CONFLICT)));
         }
+
+        @Test
+        public void shouldNotAllowDuplicateId() throws Exception {
+            ResponseEntity<String> response = restTemplate.exchange(
+                    "/api/users/" + USER_ONE_ID,
+                    HttpMethod.PUT,
+                    new HttpEntity<>(USER_TO_INSERT),
+                    String.class
+            );
+
+            assertThat(response.getStatusCode(), is(equalTo(CONFLICT)));
+            assertThat(response.getBody(), is(equalTo("{\"status\":409,\"error\":\"Conflict\",\"message\":\"Id already exists\"}")));
+        }
+    }
+
+    @Nested
+    class Metrics {
+        @Test
+        public void shouldTimeRequestsPerEndpoint() throws Exception {
+            assumeServlet();
+            restTemplate.getForEntity("/api/users/" + USER_ONE_ID, User.class);
+
+            String metrics = scrapeMetrics();
+
+            assertThat(sample(metrics, "users_requests_seconds_count{endpoint=\"getUserById\",}"), is(greaterThan(0.0)));
+            assertThat(metrics, containsString("users_requests_seconds{endpoint=\"getUserById\",quantile=\"0.5\",}"));
+            assertThat(metrics, containsString("users_requests_seconds{endpoint=\"insert\",quantile=\"0.99\",}"));
+            assertThat(metrics, containsString("users_requests_seconds{endpoint=\"create\",quantile=\"0.999\",}"));
+        }
+
+        @Test
+        public void shouldCountConflicts() throws Exception {
+            restTemplate.postForEntity("/api/users", USER_WITH_DUPLICATE_USERNAME, Void.class);
+
+            assertThat(sample(scrapeMetrics(), "users_conflicts_total{reason=\"username\",}"), is(greaterThan(0.0)));
+        }
+
+        @Test
+        public void shouldCountValidationFailuresByConstraint() throws Exception {
+            restTemplate.getForEntity("/api/users/444", String.class);
+            restTemplate.postForEntity("/api/users", new User("my_username", "not_a_email", LocalDate.of(1944, 7, 20)), Void.class);
+
+            String metrics = scrapeMetrics();
+
+            assertThat(sample(metrics, "users_validation_failures_total{constraint=\"Uuid\",}"), is(greaterThan(0.0)));
+            assertThat(sample(metrics, "users_validation_failures_total{constraint=\"Email\",}"), is(greaterThan(0.0)));
+        }
+
+        @Test
+        public void shouldGaugeStoredUsers() throws Exception {
+            when(userRepository.size()).thenReturn(42);
+
+            assertThat(sample(scrapeMetrics(), "users_stored"), is(equalTo(42.0)));
+        }
+
+        private String scrapeMetrics() {
+            ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+
+            return response.getBody();
+        }
+
+        private double sample(String metrics, String series) {
+            return metrics.lines()
+                    .filter(line -> line.startsWith(series + " "))
+                    .mapToDouble(line -> Double.parseDouble(line.substring(series.length() + 1)))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError(series + " not found in " + metrics));
+        }
+    }
+
+    @Nested
+    class Traces {
+        @BeforeEach
+        public void setup() {
+            assumeServlet();
+        }
+
+        @Test
+        public void shouldTraceBindingAndBeanValidation() throws Exception {
+            restTemplate.postForEntity("/api/users", new User("traced_user", "traced@fakemail.com", LocalDate.of(1985, 4, 12)), Void.class);
+
+            Map<String, Object> trace = findTrace("create", 201);
+            Map<String, Double> phaseMicros = phaseMicrosOf(trace);
+
+            assertThat(phaseMicros.get("BINDING"), is(greaterThan(0.0)));
+            assertThat(phaseMicros.get("BEAN_VALIDATION"), is(greaterThan(0.0)));
+            assertThat(phaseMicros.get("SERVICE"), is(greaterThan(0.0)));
+            assertThat(phaseMicros.keySet(), contains("BINDING", "BEAN_VALIDATION", "METHOD_VALIDATION", "SERVICE", "REPOSITORY", "OTHER"));
+        }
+
+        @Test
+        public void shouldTraceMethodValidation() throws Exception {
+            restTemplate.getForEntity("/api/users/444", String.class);
+
+            Map<String, Double> phaseMicros = phaseMicrosOf(findTrace("getUserById", 400));
+
+            assertThat(phaseMicros.get("METHOD_VALIDATION"), is(greaterThan(0.0)));
+            assertThat(phaseMicros.get("SERVICE"), is(equalTo(0.0)));
+        }
+
+        @Test
+        public void shouldListSlowestRequestsFirst() throws Exception {
+            restTemplate.getForEntity("/api/users/" + USER_ONE_ID, User.class);
+            restTemplate.getForEntity("/api/users/" + USER_ONE_ID, User.class);
+
+            List<Map<String, Object>> traces = traces(2);
+
+            assertThat(traces, hasSize(2));
+            assertThat((Double) traces.get(0).get("totalMicros"), is(greaterThanOrEqualTo((Double) traces.get(1).get("totalMicros"))));
+        }
+
+        @Test
+        public void shouldNotAcceptNegativeLimit() throws Exception {
+            ResponseEntity<String> response = restTemplate.getForEntity("/actuator/requesttraces?limit=-1", String.class);
+
+            assertThat(response.getStatusCode(), is(equalTo(BAD_REQUEST)));
+        }
+
+        /**
+         * Retries for a while, since requests are recorded after their response has been sent
+         */
+        private Map<String, Object> findTrace(String endpoint, int status) throws InterruptedException {
+            for (int attempt = 0; attempt < 50; attempt++) {
+                Optional<Map<String, Object>> trace = traces(1024).stream()
+                        .filter(candidate -> endpoint.equals(candidate.get("endpoint")) && Integer.valueOf(status).equals(candidate.get("status")))
+                        .findFirst();
+
+                if (trace.isPresent()) {
+                    return trace.get();
+                }
+
+                Thread.sleep(20);
+            }
+
+            throw new AssertionError(endpoint + " " + status + " not traced");
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<String, Double> phaseMicrosOf(Map<String, Object> trace) {
+            return (Map<String, Double>) trace.get("phaseMicros");
+        }
+
+        private List<Map<String, Object>> traces(int limit) {
+            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+                    "/actuator/requesttraces?limit=" + limit,
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                    }
+            );
+            assertThat(response.getStatusCode(), is(equalTo(OK)));
+
+            return response.getBody();
+        }
     }
 }
@@ -0,0 +1,95 @@
+package de.borisskert.springrequestvalidation;
+
+import net.jqwik.api.*;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Proves that the {@link UuidValidator} agrees with the regular expression {@link Uuid} used to be composed of
+ */
+class UuidValidatorTest {
+
+    private static final Pattern PATTERN = Pattern.compile(UuidValidator.PATTERN);
+
+    private static final String CHARACTERS = "0123456789abcdefABCDEFgz-_ \né";
+
+    @Property
+    void shouldAgreeOnArbitraryStrings(@ForAll String value) {
+        assertAgreement(value);
+    }
+
+    @Property(tries = 10_000)
+    void shouldAgreeOnUuids(@ForAll("uuids") String value) {
+        assertAgreement(value);
+    }
+
+    @Property(tries = 10_000)
+    void shouldAgreeOnModifiedUuids(
+            @ForAll("uuids") String value,
+            @ForAll("modifications") Modification modification,
+            @ForAll("characters") char character,
+            @ForAll double position
+    ) {
+        assertAgreement(modification.apply(value, (int) Math.abs(position * 36) % 37, character));
+    }
+
+    @Example
+    void shouldAcceptTheExampleIds() {
+        assertThat(UuidValidator.isUuid(MockUsers.USER_ONE_ID.toString()), is(true));
+        assertThat(UuidValidator.isUuid(MockUsers.TIME_ORDERED_ID.toString()), is(true));
+        assertThat(UuidValidator.isUuid("444"), is(false));
+    }
+
+    /**
+     * Any UUID, with random version and variant bits, in lower or upper case
+     */
+    @Provide
+    Arbitrary<String> uuids() {
+        Arbitrary<String> uuids = Arbitraries.randomValue(random -> new UUID(random.nextLong(), random.nextLong()).toString());
+        return Arbitraries.oneOf(uuids, uuids.map(String::toUpperCase));
+    }
+
+    @Provide
+    Arbitrary<Modification> modifications() {
+        return Arbitraries.of(Modification.class);
+    }
+
+    @Provide
+    Arbitrary<Character> characters() {
+        return Arbitraries.of(CHARACTERS.toCharArray());
+    }
+
+    private static void assertAgreement(String value) {
+        assertThat(value, UuidValidator.isUuid(value), is(equalTo(PATTERN.matcher(value).matches())));
+    }
+
+    enum Modification {
+        REPLACE {
+            @Override
+            String apply(String value, int position, char character) {
+                int index = Math.min(position, value.length() - 1);
+                return value.substring(0, index) + character + value.substring(index + 1);
+            }
+        },
+        INSERT {
+            @Override
+            String apply(String value, int position, char character) {
+                return value.substring(0, position) + character + value.substring(position);
+            }
+        },
+        DELETE {
+            @Override
+            String apply(String value, int position, char character) {
+                int index = Math.min(position, value.length() - 1);
+                return value.substring(0, index) + value.substring(index + 1);
+            }
+        };
+
+        abstract String apply(String value, int position, char character);
+    }
+}
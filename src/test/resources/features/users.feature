@@ -52,3 +52,32 @@ Feature: User functionalities
       | Username   | Email                      | Day of Birth   | ID                                   |
       | ashley     | ashley@fakemail.com        | 1962-07-08     | 1ed47a5f-2793-41f8-ba1c-4a0f5c7e7c77 |
     Then I get a Conflict response
+
+  Scenario: Create users in a batch
+    Given A user exists with ID
+      | Username   | Email                      | Day of Birth   | ID                                   |
+      | batman     | batman@fakemail.com        | 1939-05-01     | 0c7d3e35-5c4f-4a54-9e4b-2d0e8f7c3a11 |
+    When I create users in a batch
+      | Username   | Email                      | Day of Birth   |
+      | robin      | robin@fakemail.com         | 1940-04-01     |
+      | joker      | not_a_email                | 1940-04-25     |
+      | robin      | robin.two@fakemail.com     | 1940-04-01     |
+      | batman     | batman.two@fakemail.com    | 1939-05-01     |
+    Then I should get following batch results
+      | Index | Status   |
+      | 0     | CREATED  |
+      | 1     | INVALID  |
+      | 2     | CONFLICT |
+      | 3     | CONFLICT |
+
+  Scenario: Import users from newline-delimited JSON
+    When I import users
+      | Username   | Email                      | Day of Birth   |
+      | importer   | importer@fakemail.com      | 1971-02-03     |
+      | imported   | not_a_email                | 1971-02-03     |
+      | importer   | importer.two@fakemail.com  | 1971-02-03     |
+    Then I should get following import results
+      | Index | Status   |
+      | 0     | CREATED  |
+      | 1     | INVALID  |
+      | 2     | CONFLICT |